@@ -0,0 +1,40 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+
+/**
+ * Positions shared by the benchmarks. Each one comes with a four-move knight
+ * shuffle that returns to the starting position, so a benchmark can keep
+ * making validated moves without rebuilding the game.
+ */
+public enum BenchmarkPositions {
+    START("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 1",
+            "g1f3", "g8f6", "f3g1", "f6g8"),
+    MIDGAME("r1bqkb1r/pppp1ppp/2n2n2/4p3/2B1P3/5N2/PPPP1PPP/RNBQK2R w - - 4 4",
+            "f3g1", "f6g8", "g1f3", "g8f6"),
+    ENDGAME("8/5pk1/6p1/3R4/1r6/6P1/5PK1/8 w - - 0 40",
+            "g2h3", "g7h7", "h3g2", "h7g7");
+
+    private final String fen;
+    private final String[] shuffle;
+
+    BenchmarkPositions(String fen, String... shuffle) {
+        this.fen = fen;
+        this.shuffle = shuffle;
+    }
+
+    ChessGame game() {
+        return ChessGame.fromFen(fen);
+    }
+
+    ChessMove[] shuffle() {
+        ChessMove[] moves = new ChessMove[shuffle.length];
+        for (int i = 0; i < shuffle.length; i++) {
+            moves[i] = new ChessMove(ChessPosition.fromAlgebraic(shuffle[i].substring(0, 2)),
+                    ChessPosition.fromAlgebraic(shuffle[i].substring(2, 4)), null);
+        }
+        return moves;
+    }
+}
@@ -0,0 +1,78 @@
+package benchmarks;
+
+import chess.ChessGame;
+import dataaccess.DataAccessException;
+import dataaccess.memoryimplementation.InMemoryAuthDAO;
+import dataaccess.memoryimplementation.InMemoryGameDAO;
+import dataaccess.memoryimplementation.InMemoryUserDAO;
+import model.AuthData;
+import model.GameData;
+import model.UserData;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The in-memory DAOs used by the service tests
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DaoBenchmarks {
+
+    private InMemoryGameDAO gameDAO;
+    private InMemoryAuthDAO authDAO;
+    private InMemoryUserDAO userDAO;
+    private int gameID;
+    private ChessGame game;
+    private String authToken;
+
+    @Setup(Level.Iteration)
+    public void setup() throws DataAccessException {
+        gameDAO = new InMemoryGameDAO();
+        authDAO = new InMemoryAuthDAO();
+        userDAO = new InMemoryUserDAO();
+
+        gameID = gameDAO.createGame("benchmark").gameID();
+        gameDAO.joinGame(gameID, "white", ChessGame.TeamColor.WHITE);
+        gameDAO.joinGame(gameID, "black", ChessGame.TeamColor.BLACK);
+        game = BenchmarkPositions.MIDGAME.game();
+
+        userDAO.createUser(new UserData("white", "hash", "white@example.com"));
+        authToken = authDAO.createAuth("white").authToken();
+    }
+
+    @Benchmark
+    public Optional<GameData> getGame() {
+        return gameDAO.getGame(gameID);
+    }
+
+    @Benchmark
+    public void saveGame() throws DataAccessException {
+        gameDAO.saveGame(gameID, game);
+    }
+
+    @Benchmark
+    public GameData createGame() {
+        return gameDAO.createGame("benchmark");
+    }
+
+    @Benchmark
+    public Optional<AuthData> getAuth() {
+        return authDAO.getAuth(authToken);
+    }
+
+    @Benchmark
+    public AuthData createAuth() {
+        return authDAO.createAuth("white");
+    }
+
+    @Benchmark
+    public Optional<UserData> getUser() {
+        return userDAO.getUser("white");
+    }
+}
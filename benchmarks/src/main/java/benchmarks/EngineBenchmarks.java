@@ -0,0 +1,128 @@
+package benchmarks;
+
+import chess.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Move validation and game status checks, as the server runs them on every move
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EngineBenchmarks {
+
+    @Param({"START", "MIDGAME", "ENDGAME"})
+    public BenchmarkPositions position;
+
+    private ChessGame game;
+    private ChessPosition[] ownPieces;
+    private ChessMove[] shuffle;
+    private ChessGame matedGame;
+    private final MoveList moveList = new MoveList();
+
+    @Setup
+    public void setup() throws InvalidMoveException {
+        game = position.game();
+        shuffle = position.shuffle();
+
+        List<ChessPosition> squares = new ArrayList<>();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPosition square = ChessPosition.of(row, col);
+                ChessPiece piece = game.getBoard().getPiece(square);
+                if (piece != null && piece.getTeamColor() == game.getTeamTurn()) {
+                    squares.add(square);
+                }
+            }
+        }
+        ownPieces = squares.toArray(new ChessPosition[0]);
+
+        // fool's mate
+        matedGame = new ChessGame();
+        matedGame.makeMove(move("f2f3"));
+        matedGame.makeMove(move("e7e5"));
+        matedGame.makeMove(move("g2g4"));
+        matedGame.makeMove(move("d8h4"));
+    }
+
+    private static ChessMove move(String coordinates) {
+        return new ChessMove(ChessPosition.fromAlgebraic(coordinates.substring(0, 2)),
+                ChessPosition.fromAlgebraic(coordinates.substring(2, 4)), null);
+    }
+
+    @Benchmark
+    public void validMovesForEveryPiece(Blackhole blackhole) {
+        for (ChessPosition square : ownPieces) {
+            blackhole.consume(game.validMoves(square));
+        }
+    }
+
+    @Benchmark
+    public Object allLegalMoves() {
+        return game.allLegalMoves(game.getTeamTurn());
+    }
+
+    @Benchmark
+    public int generateLegalMovesPacked() {
+        game.generateLegalMoves(moveList);
+        return moveList.size();
+    }
+
+    @Benchmark
+    public boolean isInCheckmateWhenNotMated() {
+        return game.isInCheckmate(game.getTeamTurn());
+    }
+
+    @Benchmark
+    public boolean isInCheckmateWhenMated() {
+        return matedGame.isInCheckmate(matedGame.getTeamTurn());
+    }
+
+    @Benchmark
+    public boolean isInStalemate() {
+        return game.isInStalemate(game.getTeamTurn());
+    }
+
+    /**
+     * Four validated moves that bring the game back to where it started
+     */
+    @Benchmark
+    @OperationsPerInvocation(4)
+    public void makeMove(FreshGame fresh) throws InvalidMoveException {
+        for (ChessMove move : shuffle) {
+            fresh.game.makeMove(move);
+        }
+    }
+
+    @Benchmark
+    public void doAndUndoMove() {
+        game.doMove(shuffle[0]);
+        game.undoMove();
+    }
+
+    /**
+     * A new game for every {@link #makeMove} call, since a game keeps every
+     * move it is given and would otherwise grow for the whole run. It is a
+     * separate state so the per-call setup only slows down that benchmark.
+     */
+    @State(Scope.Thread)
+    public static class FreshGame {
+        @Param({"START", "MIDGAME", "ENDGAME"})
+        public BenchmarkPositions position;
+
+        private ChessGame game;
+
+        @Setup(Level.Invocation)
+        public void setup() {
+            game = position.game();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.search.LazySmpSearch;
+import chess.search.SearchLimits;
+import chess.search.SearchResult;
+import chess.search.TranspositionTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to reach a fixed depth with a growing number of Lazy SMP threads.
+ * Compare against the threads=1 row to see how the search scales; each
+ * thread's node count is in {@link LazySmpSearch#threadNodes()}. The shared
+ * transposition table is cleared before every search, so each one starts
+ * cold instead of reusing the last one's results.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LazySmpBenchmarks {
+
+    @Param({"MIDGAME"})
+    public BenchmarkPositions position;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    @Param({"5"})
+    public int depth;
+
+    private ChessGame game;
+    private TranspositionTable table;
+    private LazySmpSearch search;
+
+    @Setup
+    public void setup() {
+        game = position.game();
+        table = new TranspositionTable();
+        search = new LazySmpSearch(threads, table);
+    }
+
+    @Setup(Level.Invocation)
+    public void clearTable() {
+        table.clear();
+    }
+
+    @TearDown
+    public void tearDown() {
+        search.close();
+    }
+
+    @Benchmark
+    public SearchResult timeToDepth() {
+        return search.search(game, SearchLimits.depth(depth));
+    }
+}
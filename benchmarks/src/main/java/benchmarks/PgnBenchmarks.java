@@ -0,0 +1,62 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.MoveList;
+import chess.notation.PgnGame;
+import chess.notation.PgnReader;
+import chess.notation.PgnWriter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PGN import rate. The score is in games per second, over a batch of
+ * random 80-ply games written by {@link PgnWriter}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PgnBenchmarks {
+    private static final int GAMES = 200;
+
+    private byte[] pgn;
+
+    @Setup
+    public void setup() throws IOException {
+        Random random = new Random(1);
+        MoveList moves = new MoveList();
+        StringBuilder out = new StringBuilder();
+        PgnWriter writer = new PgnWriter(out);
+        for (int i = 0; i < GAMES; i++) {
+            ChessGame game = new ChessGame();
+            for (int ply = 0; ply < 80; ply++) {
+                game.generateLegalMoves(moves);
+                if (moves.isEmpty()) {
+                    break;
+                }
+                game.doMove(moves.get(random.nextInt(moves.size())));
+            }
+            writer.write(Map.of("Round", Integer.toString(i + 1)), game);
+        }
+        pgn = out.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(GAMES)
+    public void importGames(Blackhole blackhole) throws IOException {
+        try (PgnReader reader = new PgnReader(new ByteArrayInputStream(pgn))) {
+            for (PgnGame game = reader.next(); game != null; game = reader.next()) {
+                blackhole.consume(game);
+            }
+        }
+    }
+}
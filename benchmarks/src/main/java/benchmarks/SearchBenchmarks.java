@@ -0,0 +1,52 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.search.SearchEngine;
+import chess.search.SearchLimits;
+import chess.search.SearchResult;
+import chess.search.TranspositionTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fixed depth searches, reported per search. Divide the result's node count
+ * by the time to get nodes per second. The transposition table is cleared
+ * before every search, since otherwise each search after the first is
+ * answered from the previous one's entries.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmarks {
+
+    @Param({"START", "MIDGAME", "ENDGAME"})
+    public BenchmarkPositions position;
+
+    @Param({"4"})
+    public int depth;
+
+    private ChessGame game;
+    private TranspositionTable table;
+    private SearchEngine engine;
+
+    @Setup
+    public void setup() {
+        game = position.game();
+        table = new TranspositionTable();
+        engine = new SearchEngine(table);
+    }
+
+    @Setup(Level.Invocation)
+    public void clearTable() {
+        table.clear();
+    }
+
+    @Benchmark
+    public SearchResult fixedDepthSearch() {
+        return engine.search(game, SearchLimits.depth(depth));
+    }
+}
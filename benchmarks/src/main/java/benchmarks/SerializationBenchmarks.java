@@ -0,0 +1,47 @@
+package benchmarks;
+
+import chess.ChessGame;
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The Gson round trip SQLGameDAO does for every saveGame/getGame call
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmarks {
+
+    @Param({"START", "MIDGAME", "ENDGAME"})
+    public BenchmarkPositions position;
+
+    private final Gson gson = new Gson();
+    private ChessGame game;
+    private String json;
+
+    @Setup
+    public void setup() {
+        game = position.game();
+        json = gson.toJson(game);
+    }
+
+    @Benchmark
+    public String saveGameJson() {
+        return gson.toJson(game);
+    }
+
+    @Benchmark
+    public ChessGame getGameJson() {
+        return gson.fromJson(json, ChessGame.class);
+    }
+
+    @Benchmark
+    public ChessGame roundTrip() {
+        return gson.fromJson(gson.toJson(game), ChessGame.class);
+    }
+}
@@ -0,0 +1,61 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.*;
+import websocket.commands.UserGameCommand;
+import websocket.messages.ServerMessage;
+import websocket.server.GsonFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding WebSocket traffic with the same Gson setup as WebSocketHandler
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WebSocketMessageBenchmarks {
+
+    private final Gson gson = GsonFactory.websocketBuilder().create();
+    private ServerMessage loadGame;
+    private ServerMessage notification;
+    private String makeMoveCommand;
+    private String connectCommand;
+
+    @Setup
+    public void setup() {
+        ChessGame game = BenchmarkPositions.MIDGAME.game();
+        loadGame = new ServerMessage.LoadGame(game);
+        notification = new ServerMessage.Notification("white moved e4");
+
+        ChessMove move = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+        makeMoveCommand = gson.toJson(new UserGameCommand.MakeMoveCommand("token", 1, move));
+        connectCommand = gson.toJson(new UserGameCommand.ConnectCommand("token", 1));
+    }
+
+    @Benchmark
+    public UserGameCommand decodeMakeMove() {
+        return gson.fromJson(makeMoveCommand, UserGameCommand.class);
+    }
+
+    @Benchmark
+    public UserGameCommand decodeConnect() {
+        return gson.fromJson(connectCommand, UserGameCommand.class);
+    }
+
+    @Benchmark
+    public String encodeLoadGame() {
+        return gson.toJson(loadGame);
+    }
+
+    @Benchmark
+    public String encodeNotification() {
+        return gson.toJson(notification);
+    }
+}
@@ -1,6 +1,9 @@
 package client;
 
+import java.io.IOException;
 import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -8,6 +11,10 @@ import chess.ChessBoard;
 import chess.ChessGame;
 import chess.ChessMove;
 import chess.ChessPosition;
+import chess.MoveList;
+import chess.book.BookMove;
+import chess.book.OpeningBook;
+import chess.notation.San;
 import com.google.gson.Gson;
 import server.ServerFacade;
 import ui.ChessBoardPrinter;
@@ -34,6 +41,8 @@ public class ChessClient {
     private String playerColor = null;
     private WebSocketClientHelper webSocket;
     private final String baseURL;
+    private OpeningBook book = null;
+    private boolean bookChecked = false;
 
     public ChessClient(String url) {
         this.baseURL = url;
@@ -178,7 +187,7 @@ public class ChessClient {
                     return "Cannot move, you are an observer.";
                 }
                 String notation = (params.length == 1 ? params[0] : params[0] + params[1]);
-                webSocket.sendMove(notation);
+                webSocket.sendMove(notation, gameState);
                 return "";
             }
             case "resign" -> {
@@ -188,6 +197,13 @@ public class ChessClient {
                 pendingResign = true;
                 return "Are you sure to you want to resign? (y/n)";
             }
+            case "claim" -> {
+                if (!isPlayer) {
+                    return "Cannot claim a draw, you are an observer.";
+                }
+                webSocket.sendClaimDraw();
+                return "";
+            }
             case "leave" -> {
                 webSocket.sendLeave();
                 inGame = false;
@@ -220,6 +236,12 @@ public class ChessClient {
                 ChessBoardPrinter.printWithHighlights(gameState.getBoard(), isWhitePerspective(), highlights);
                 return "";
             }
+            case "book" -> {
+                if (gameState == null) {
+                    return "No game to look up.";
+                }
+                return bookMoves();
+            }
             case "redraw" -> {
                 if (gameState == null) {
                     return "No game to redraw.";
@@ -231,6 +253,41 @@ public class ChessClient {
         return "Unknown in-game command, Type \"help\" for a list.";
     }
 
+    /**
+     * Lists the opening book's moves for the current position. The book is
+     * opened on first use from the chess.book system property, or book.bin in
+     * the working directory.
+     */
+    private String bookMoves() {
+        if (!bookChecked) {
+            bookChecked = true;
+            Path file = Path.of(System.getProperty("chess.book", "book.bin"));
+            if (Files.exists(file)) {
+                try {
+                    book = OpeningBook.open(file);
+                } catch (IOException e) {
+                    return "Could not open the opening book: " + e.getMessage();
+                }
+            }
+        }
+        if (book == null) {
+            return "No opening book found.";
+        }
+
+        List<BookMove> moves = book.moves(gameState);
+        if (moves.isEmpty()) {
+            return "This position is not in the book.";
+        }
+        MoveList legal = gameState.legalMoves().moves();
+        int total = moves.stream().mapToInt(BookMove::weight).sum();
+        StringBuilder text = new StringBuilder("Book moves:");
+        for (BookMove move : moves) {
+            text.append(String.format(" %s (%d%%)", San.format(gameState, move.move(), legal),
+                    Math.round(100.0 * move.weight() / total)));
+        }
+        return text.toString();
+    }
+
     private String logout() {
         server.logout();
         this.authToken = null;
@@ -431,15 +488,18 @@ public class ChessClient {
         } else if (!isPlayer) {
             return """
             highlight <e2>    - Show legal moves for that square
+            book              - Show opening book moves for this position
             redraw            - Reprint the current board
             leave             - Stop spectating and return to lobby
             help              - Show this help page
             """;
         } else {
             return """
-            move <e2e4>            - Make a move
+            move <e2e4|Nf3>        - Make a move, as coordinates or SAN
             resign                 - Forfeit and end this game
+            claim                  - Claim a draw by repetition or the fifty-move rule
             highlight <e2>         - Show legal moves for the specified piece
+            book                   - Show opening book moves for this position
             redraw                 - Reprint the board
             leave                  - Leave the game without resigning
             help                   - Show this help page
@@ -4,8 +4,12 @@ import java.net.URI;
 import java.net.http.*;
 import java.util.concurrent.CompletionStage;
 
+import chess.ChessGame;
 import chess.ChessPiece;
 import chess.ChessPosition;
+import chess.MoveList;
+import chess.Moves;
+import chess.notation.San;
 import com.google.gson.Gson;
 import websocket.commands.UserGameCommand;
 import websocket.server.GsonFactory;
@@ -58,10 +62,19 @@ public class WebSocketClientHelper {
         }).join();
     }
 
-    private ChessMove parseMoveNotation(String notation) {
+    /**
+     * Reads a move as coordinates ("e2e4", "e7e8q") or, given the current
+     * game, as SAN ("Nf3", "exd5", "e8=Q", "O-O")
+     */
+    private ChessMove parseMoveNotation(String notation, ChessGame game) {
         notation = notation.trim();
-        if (notation.length() != 4 && notation.length() != 5) {
-            throw new IllegalArgumentException("Expected format: 'move <e2e4>', or 'move <e7e8q>' for promotion");
+        if (!isCoordinates(notation)) {
+            if (game == null) {
+                throw new IllegalArgumentException("Expected format: 'move <e2e4>', or 'move <e7e8q>' for promotion");
+            }
+            MoveList legal = new MoveList();
+            game.generateLegalMoves(legal);
+            return Moves.toChessMove(San.parse(notation, game, legal));
         }
         String fromAlgebraic = notation.substring(0, 2);
         String toAlgebraic = notation.substring(2, 4);
@@ -73,6 +86,15 @@ public class WebSocketClientHelper {
         return new ChessMove(from, to, promotionPiece);
     }
 
+    private static boolean isCoordinates(String notation) {
+        return (notation.length() == 4 || notation.length() == 5)
+                && isSquare(notation.charAt(0), notation.charAt(1)) && isSquare(notation.charAt(2), notation.charAt(3));
+    }
+
+    private static boolean isSquare(char file, char rank) {
+        return file >= 'a' && file <= 'h' && rank >= '1' && rank <= '8';
+    }
+
     private static ChessPiece.PieceType getPromotionPiece(String notation) {
         ChessPiece.PieceType promotionPiece = null;
         if (notation.length() == 5) {
@@ -89,8 +111,8 @@ public class WebSocketClientHelper {
         return promotionPiece;
     }
 
-    public void sendMove(String moveNotation) {
-        ChessMove move = parseMoveNotation(moveNotation);
+    public void sendMove(String moveNotation, ChessGame game) {
+        ChessMove move = parseMoveNotation(moveNotation, game);
         sendText(new MakeMoveCommand(authToken, gameID, move));
     }
 
@@ -98,6 +120,10 @@ public class WebSocketClientHelper {
         sendText(new ResignCommand(authToken, gameID));
     }
 
+    public void sendClaimDraw() {
+        sendText(new ClaimDrawCommand(authToken, gameID));
+    }
+
     public void sendLeave() {
         sendText(new LeaveCommand(authToken, gameID));
         webSocket.sendClose(WebSocket.NORMAL_CLOSURE, "Thanks for playing!");
@@ -59,7 +59,7 @@ public class ChessBoardPrinter {
             for (int rank = 8; rank >= 1; rank--) {
                 System.out.print(SET_BG_COLOR_BLUE + rank + " " + RESET_BG_COLOR);
                 for (int file = 1; file <= 8; file++) {
-                    ChessPosition position = new ChessPosition(rank, file);
+                    ChessPosition position = ChessPosition.of(rank, file);
                     boolean highlight = highlights.contains(position);
                     printCell(board, rank, file, highlight);
                 }
@@ -71,7 +71,7 @@ public class ChessBoardPrinter {
             for (int rank = 1; rank <= 8; rank++) {
                 System.out.print(SET_BG_COLOR_BLUE + rank + " " + RESET_BG_COLOR);
                 for (int file = 8; file >= 1; file--) {
-                    ChessPosition position = new ChessPosition(rank, file);
+                    ChessPosition position = ChessPosition.of(rank, file);
                     boolean highlight = highlights.contains(position);
                     printCell(board, rank, file, highlight);
                 }
@@ -83,7 +83,7 @@ public class ChessBoardPrinter {
     }
 
     private static void printCell(ChessBoard board, int rank, int file, boolean highlight) {
-        ChessPosition position = new ChessPosition(rank, file);
+        ChessPosition position = ChessPosition.of(rank, file);
         ChessPiece piece = board.getPiece(position);
 
         boolean isLight = ((rank + file) % 2 == 0);
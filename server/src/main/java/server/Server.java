@@ -22,7 +22,8 @@ public class Server {
 
     private final AuthService authService = new AuthService(authDAO, gameDAO, userDAO);
     private final UserService userService = new UserService(userDAO, authDAO, authService);
-    private final GameService gameService = new GameService(gameDAO, authService);
+    private final PositionCache positionCache = new PositionCache();
+    private final GameService gameService = new GameService(gameDAO, authService, positionCache);
 
     private final BaseHandler<UserService.RegisterRequest, UserService.AuthResult> registerHandler =
             new BaseHandler<>(request -> userService.register(request.username(), request.password(),
@@ -50,7 +51,7 @@ public class Server {
 
         // Initialize the database
         SchemaInitializer.initialize();
-        Spark.webSocket("/ws", WebSocketHandler.class);
+        Spark.webSocket("/ws", new WebSocketHandler(positionCache));
 
         // Register
         Spark.post("/user", registerHandler::handleRequest);
@@ -117,10 +118,29 @@ public class Server {
             } catch (NumberFormatException ex) {
                 throw new BadRequestException("Invalid game ID format");
             }
+            response.type("application/json");
+            String format = request.queryParams("format");
+            if ("pgn".equalsIgnoreCase(format)) {
+                return gson.toJson(new GameService.ExportPgnResult(true, gameService.exportPgn(token, gameID)));
+            }
             GameService.ObserveGameResult observeGameResult = gameService.observeGame(token, gameID);
 
+            if (format == null || format.equalsIgnoreCase("json")) {
+                return gson.toJson(observeGameResult);
+            }
+            if (format.equalsIgnoreCase("fen")) {
+                // the position alone, in about 60 bytes instead of the whole serialized game
+                return gson.toJson(new GameService.ObserveFenResult(true, observeGameResult.game().toFen(),
+                        observeGameResult.playerRole()));
+            }
+            throw new BadRequestException("Unknown game format: " + format);
+        });
+
+        // Position cache hit rate
+        Spark.get("/stats/positions", (request, response) -> {
+            String token = requireAuthToken(request);
             response.type("application/json");
-            return gson.toJson(observeGameResult);
+            return gson.toJson(gameService.positionCacheStats(token));
         });
 
         // Clear Databases
@@ -1,23 +1,43 @@
 package service;
 
+import chess.Bitboards;
 import chess.ChessGame;
 import chess.ChessMove;
+import chess.ChessPiece;
 import chess.InvalidMoveException;
+import chess.LegalMoves;
+import chess.MoveList;
+import chess.Moves;
+import chess.notation.PgnWriter;
+import chess.notation.San;
 import dataaccess.*;
 import model.*;
 
+import java.io.IOException;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static chess.ChessGame.TeamColor.*;
 
 public class GameService {
     private final GameDAO gameDAO;
     private final AuthService authService;
+    /**
+     * Games are read back from the database on every request, so their legal
+     * moves are kept here rather than on the game, shared with every other game
+     */
+    private final PositionCache positions;
 
-    public GameService(GameDAO gameDAO, AuthService authService) {
+    public GameService(GameDAO gameDAO, AuthService authService, PositionCache positions) {
         this.gameDAO = gameDAO;
         this.authService = authService;
+        this.positions = positions;
+    }
+
+    public GameService(GameDAO gameDAO, AuthService authService) {
+        this(gameDAO, authService, new PositionCache());
     }
 
     public CreateGameResult createGame(String gameName, String authToken) {
@@ -130,6 +150,27 @@ public class GameService {
         return new ObserveGameResult(true, currentState, null, role);
     }
 
+    /**
+     * Exports a game as PGN, with its name as the event and its players as the sides
+     */
+    public String exportPgn(String authToken, int gameID) throws DataAccessException {
+        authService.validateAuthToken(authToken);
+        GameData data = gameDAO.getGame(gameID).orElseThrow(
+                () -> new BadRequestException("Game ID: " + gameID + " does not exist."));
+
+        Map<String, String> tags = new LinkedHashMap<>();
+        tags.put("Event", data.gameName());
+        tags.put("White", data.whiteUsername());
+        tags.put("Black", data.blackUsername());
+        StringBuilder pgn = new StringBuilder();
+        try {
+            new PgnWriter(pgn).write(tags, data.game());
+        } catch (IOException e) {
+            throw new ServerException("Failed to export game", e);
+        }
+        return pgn.toString();
+    }
+
     public MakeMoveResult makeMove(String authToken, int gameID, ChessMove move) throws DataAccessException {
         AuthData auth = authService.validateAuthToken(authToken);
         String username = auth.username();
@@ -149,21 +190,45 @@ public class GameService {
 
         if (game.isGameOver()) {
             return new MakeMoveResult(false, game, null,
-                    false, false, "Game is already over!");
+                    false, false, null, null, "Game is already over!");
         }
 
         if (game.getTeamTurn() != playerColor) {
             String error = String.format("Not your turn: it is %s to move, you are %s.",
                     game.getTeamTurn(), playerColor);
-            return new MakeMoveResult(false, game, null, false, false, error);
+            return new MakeMoveResult(false, game, null, false, false, null, null, error);
         }
 
+        // the moves cached after the previous move both check this one and disambiguate its SAN
+        LegalMoves legal = positions.get(game);
+        int packed = isWellFormed(move) ? Moves.of(move, game.getBoard()) : Moves.NONE;
+        MoveList legalMoves = legal.moves();
+        String san = legal.contains(packed) ? San.format(game.getBoard(), packed, legalMoves, false, false) : null;
         try {
-            game.makeMove(move);
+            game.makeMove(packed, legalMoves);
         } catch (InvalidMoveException e) {
             String error = String.format(
                     "Illegal move by %s: %s ", playerColor, move);
-            return new MakeMoveResult(false, game, null, false, false, error);
+            return new MakeMoveResult(false, game, null, false, false, null, null, error);
+        }
+
+        LegalMoves replies = positions.get(game);
+        boolean check     = replies.isCheck();
+        boolean checkmate = false;
+        ChessGame.DrawReason draw = null;
+        ChessGame.DrawReason drawClaim = null;
+        if (game.isInsufficientMaterial()) {
+            draw = ChessGame.DrawReason.INSUFFICIENT_MATERIAL;
+        } else if (replies.isStalemate()) {
+            draw = ChessGame.DrawReason.STALEMATE;
+        } else {
+            checkmate = replies.isCheckmate();
+            drawClaim = checkmate ? null : game.getDrawClaim();
+        }
+
+        // repetition and fifty-move draws only end the game once a player claims them
+        if (checkmate || draw != null) {
+            game.setGameOver(true);
         }
 
         try {
@@ -172,18 +237,25 @@ public class GameService {
             throw new ServerException("Failed to save move", e);
         }
 
-        ChessGame.TeamColor opponent = playerColor.other();
-        boolean check     = game.isInCheck(opponent);
-        boolean checkmate = game.isInCheckmate(opponent);
-        boolean stalemate = game.isInStalemate(opponent);
+        String notification = String.format("%s moved %s%s", username, san, checkmate ? "#" : check ? "+" : "");
 
-        if (checkmate || stalemate) {
-            game.setGameOver(true);
-        }
+        return new MakeMoveResult(true, game, notification, check, checkmate, draw, drawClaim, null);
+    }
 
-        String notification = String.format("%s moved %s", username, move);
+    /**
+     * @return True if the move can be packed: both squares are on the board
+     * and any promotion is to a piece a pawn can become
+     */
+    private static boolean isWellFormed(ChessMove move) {
+        ChessPiece.PieceType promotion = move.getPromotionPiece();
+        return Bitboards.isOnBoard(move.getStartPosition().getRow(), move.getStartPosition().getColumn())
+                && Bitboards.isOnBoard(move.getEndPosition().getRow(), move.getEndPosition().getColumn())
+                && promotion != ChessPiece.PieceType.KING && promotion != ChessPiece.PieceType.PAWN;
+    }
 
-        return new MakeMoveResult(true, game, notification, check, checkmate, null);
+    public PositionCache.Stats positionCacheStats(String authToken) {
+        authService.validateAuthToken(authToken);
+        return positions.stats();
     }
 
     public void leaveGame(String authToken, int gameID) throws DataAccessException {
@@ -227,6 +299,40 @@ public class GameService {
 
     }
 
+    /**
+     * Ends the game as a draw by threefold repetition or the fifty-move rule.
+     * Either player may claim once the draw is available.
+     *
+     * @return why the game was drawn
+     */
+    public ChessGame.DrawReason claimDraw(String authToken, int gameID) throws DataAccessException {
+        AuthData auth = authService.validateAuthToken(authToken);
+        String username = auth.username();
+
+        GameData gameData = gameDAO.getGame(gameID).orElseThrow(
+                () -> new BadRequestException("Game ID: " + gameID + " does not exist!")
+        );
+
+        ChessGame game = gameData.game();
+
+        if (game.isGameOver()) {
+            throw new BadRequestException("Game is already over!");
+        }
+
+        if (!username.equals(gameData.whiteUsername()) && !username.equals(gameData.blackUsername())) {
+            throw new ForbiddenException("Only players can claim a draw!");
+        }
+
+        ChessGame.DrawReason reason = game.getDrawClaim();
+        if (reason == null) {
+            throw new BadRequestException("There is no draw to claim in this position!");
+        }
+
+        game.setGameOver(true);
+        gameDAO.saveGame(gameID, game);
+        return reason;
+    }
+
     public record CreateGameRequest(String gameName) { }
     public record CreateGameResult(boolean success, Integer gameID, GameEntry game) { }
 
@@ -236,10 +342,13 @@ public class GameService {
     public record ListGamesResult(boolean success, GameEntry[] games) { }
 
     public record ObserveGameResult(boolean success, ChessGame game, String message, ChessGame.TeamColor playerRole) { }
+    public record ObserveFenResult(boolean success, String fen, ChessGame.TeamColor playerRole) { }
+    public record ExportPgnResult(boolean success, String pgn) { }
 
     public record MakeMoveRequest(String authToken, int gameID, ChessMove move) { }
     public record MakeMoveResult(boolean success, ChessGame game, String notification,
-                                 boolean isCheck, boolean isCheckmate, String message) { }
+                                 boolean isCheck, boolean isCheckmate, ChessGame.DrawReason draw,
+                                 ChessGame.DrawReason drawClaim, String message) { }
     public record GameEntry(int gameID, String gameName, String whiteUsername, String blackUsername) { }
 
 
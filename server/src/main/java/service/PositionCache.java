@@ -0,0 +1,98 @@
+package service;
+
+import chess.ChessGame;
+import chess.LegalMoves;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Legal moves and check, mate and stalemate status of positions seen on this
+ * server, shared by every game. The same opening positions come up in almost
+ * every game, so after the first game they cost a hash lookup instead of a
+ * move generation.
+ * <p>
+ * Entries are keyed by position key and the least recently used one is
+ * dropped once the cache is full. Each entry holds a move list of about
+ * 1 KB, so the default capacity stays around 10 MB.
+ */
+public class PositionCache {
+    public static final int DEFAULT_CAPACITY = 10_000;
+
+    private final int capacity;
+    private final Map<Long, LegalMoves> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public PositionCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Position cache needs room for at least one entry: " + capacity);
+        }
+        this.capacity = capacity;
+        // access order makes iteration start at the least recently used entry
+        entries = new LinkedHashMap<>(capacity * 4 / 3 + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, LegalMoves> eldest) {
+                if (size() > PositionCache.this.capacity) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public PositionCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Looks up the legal moves of the game's current position, generating and
+     * caching them if the position has not been seen
+     */
+    public LegalMoves get(ChessGame game) {
+        long key = game.positionKey();
+        LegalMoves cached;
+        synchronized (entries) {
+            cached = entries.get(key);
+        }
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        // generate outside the lock; two threads missing on one position both generate, which is harmless
+        LegalMoves moves = game.legalMoves();
+        synchronized (entries) {
+            entries.put(key, moves);
+        }
+        return moves;
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public Stats stats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long lookups = hitCount + missCount;
+        return new Stats(hitCount, missCount, evictions.sum(), size, capacity,
+                lookups == 0 ? 0 : (double) hitCount / lookups);
+    }
+
+    /**
+     * Counters since the server started
+     *
+     * @param hitRate the share of lookups answered from the cache, from 0 to 1
+     */
+    public record Stats(long hits, long misses, long evictions, int size, int capacity, double hitRate) { }
+}
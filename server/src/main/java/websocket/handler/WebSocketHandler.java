@@ -27,10 +27,21 @@ public class WebSocketHandler {
     private final GameDAO gameDAO = new SQLGameDAO();
     private final UserDAO userDAO = new SQLUserDAO();
     private final AuthService authService = new AuthService(authDAO, gameDAO, userDAO);
-    private final GameService gameService = new GameService(gameDAO, authService);
+    private final GameService gameService;
 
     private final WebSocketSessions sessions = new WebSocketSessions();
 
+    /**
+     * @param positions the position cache, shared with the server's HTTP routes
+     */
+    public WebSocketHandler(PositionCache positions) {
+        gameService = new GameService(gameDAO, authService, positions);
+    }
+
+    public WebSocketHandler() {
+        this(new PositionCache());
+    }
+
     @OnWebSocketConnect
     public void onConnect(Session session) {
         return;
@@ -49,6 +60,8 @@ public class WebSocketHandler {
                 handleLeave(session, leave);
             } else if (command instanceof ResignCommand resign) {
                 handleResign(session, resign);
+            } else if (command instanceof ClaimDrawCommand claim) {
+                handleClaimDraw(session, claim);
             }
         } catch (Exception e) {
             String exceptionMessage = ExceptionHandler.mapToErrorMessage(e);
@@ -135,6 +148,9 @@ public class WebSocketHandler {
                                     data.whiteUsername() : data.blackUsername();
             broadcast(command.getGameID(),
                     new ServerMessage.Notification("Checkmate! " + winnerUsername + " has won the game!"));
+        } else if (moveResult.draw() != null) {
+            broadcast(command.getGameID(),
+                    new ServerMessage.Notification("Draw by " + drawDescription(moveResult.draw()) + "!"));
         } else if (moveResult.isCheck()) {
             ChessGame.TeamColor inCheckColor = moveResult.game().getTeamTurn();
             var data = gameDAO.getGame(command.getGameID()).orElseThrow();
@@ -143,6 +159,20 @@ public class WebSocketHandler {
             broadcast(command.getGameID(), new ServerMessage.Notification("Player " + inCheckUsername + " is in check!"));
         }
 
+        if (moveResult.drawClaim() != null) {
+            broadcast(command.getGameID(), new ServerMessage.Notification(
+                    "A draw by " + drawDescription(moveResult.drawClaim()) + " can be claimed."));
+        }
+
+    }
+
+    private static String drawDescription(ChessGame.DrawReason reason) {
+        return switch (reason) {
+            case STALEMATE -> "stalemate";
+            case INSUFFICIENT_MATERIAL -> "insufficient material";
+            case THREEFOLD_REPETITION -> "threefold repetition";
+            case FIFTY_MOVE_RULE -> "the fifty-move rule";
+        };
     }
 
     private void handleLeave(Session session, LeaveCommand command) throws DataAccessException {
@@ -174,6 +204,20 @@ public class WebSocketHandler {
         broadcast(command.getGameID(), notification);
     }
 
+    private void handleClaimDraw(Session session, ClaimDrawCommand command) throws DataAccessException {
+        ChessGame.DrawReason reason;
+        try {
+            reason = gameService.claimDraw(command.getAuthToken(), command.getGameID());
+        } catch (Exception e) {
+            send(session, new ServerMessage.Error("Error claiming a draw: " + e.getMessage()));
+            return;
+        }
+
+        String username = authDAO.getAuth(command.getAuthToken()).orElseThrow().username();
+        broadcast(command.getGameID(),
+                new ServerMessage.Notification(username + " claimed a draw by " + drawDescription(reason) + "!"));
+    }
+
     private void send(Session otherSession, ServerMessage serverMessage) {
         try {
             otherSession.getRemote().sendString(gson.toJson(serverMessage));
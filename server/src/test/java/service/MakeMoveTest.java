@@ -1,13 +1,16 @@
 package service;
 
+import chess.ChessGame;
 import chess.ChessGame.TeamColor;
 import chess.ChessMove;
+import chess.ChessPiece;
 import chess.ChessPosition;
 import dataaccess.memoryimplementation.*;
 import dataaccess.*;
 import model.GameData;
 import org.junit.jupiter.api.*;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -53,7 +56,7 @@ public class MakeMoveTest {
         GameService.MakeMoveResult moveResult = gameService.makeMove(whiteAuthToken, gameID, move);
 
         assertTrue(moveResult.success(),               "Move should succeed");
-        assertEquals("jack moved e2→e4",       moveResult.notification());
+        assertEquals("jack moved e4",          moveResult.notification());
         assertFalse(moveResult.isCheck(),              "Should not be check");
         assertFalse(moveResult.isCheckmate(),          "Should not be checkmate");
         assertEquals(TeamColor.BLACK,              moveResult.game().getTeamTurn(),
@@ -64,6 +67,50 @@ public class MakeMoveTest {
         assertEquals(moveResult.game(), stored.get().game());
     }
 
+    @Test
+    @DisplayName("A threefold repetition can be claimed, and play goes on until it is")
+    void repetitionCanBeClaimed() throws DataAccessException {
+        String[][] shuffle = {{"g1", "f3"}, {"g8", "f6"}, {"f3", "g1"}, {"f6", "g8"}};
+        GameService.MakeMoveResult moveResult = null;
+        for (int cycle = 0; cycle < 2; cycle++) {
+            for (int i = 0; i < shuffle.length; i++) {
+                ChessMove move = new ChessMove(ChessPosition.fromAlgebraic(shuffle[i][0]),
+                        ChessPosition.fromAlgebraic(shuffle[i][1]), null);
+                moveResult = gameService.makeMove(i % 2 == 0 ? whiteAuthToken : blackAuthToken, gameID, move);
+                assertTrue(moveResult.success(), "Move should succeed");
+            }
+        }
+
+        assertNull(moveResult.draw(), "The game should not end by itself");
+        assertEquals(ChessGame.DrawReason.THREEFOLD_REPETITION, moveResult.drawClaim());
+        assertFalse(gameDAO.getGame(gameID).get().game().isGameOver(), "Stored game should go on");
+
+        assertEquals(ChessGame.DrawReason.THREEFOLD_REPETITION, gameService.claimDraw(blackAuthToken, gameID));
+        assertTrue(gameDAO.getGame(gameID).get().game().isGameOver(), "Stored game should be over");
+        assertNull(gameDAO.getGame(gameID).get().game().getWinner(), "A draw has no winner");
+    }
+
+    @Test
+    @DisplayName("A draw cannot be claimed without a repetition or fifty moves")
+    void noDrawToClaim() {
+        assertThrows(BadRequestException.class, () -> gameService.claimDraw(whiteAuthToken, gameID));
+    }
+
+    @Test
+    @DisplayName("Capturing down to bare minor pieces ends the game as a draw")
+    void insufficientMaterialEndsGame() throws DataAccessException {
+        gameDAO.saveGame(gameID, ChessGame.fromFen("k7/8/8/8/4p3/4K3/8/6N1 w - - 0 1"));
+        ChessMove capture = new ChessMove(ChessPosition.fromAlgebraic("e3"), ChessPosition.fromAlgebraic("e4"), null);
+
+        GameService.MakeMoveResult moveResult = gameService.makeMove(whiteAuthToken, gameID, capture);
+
+        assertTrue(moveResult.success(), "Move should succeed");
+        assertEquals(ChessGame.DrawReason.INSUFFICIENT_MATERIAL, moveResult.draw());
+        assertFalse(gameService.makeMove(blackAuthToken, gameID,
+                new ChessMove(ChessPosition.fromAlgebraic("a8"), ChessPosition.fromAlgebraic("a7"), null)).success(),
+                "No moves after the game is over");
+    }
+
     @Test
     @DisplayName("Unsuccessfully make an illegal move")
     void unsuccessfullyMakeIllegalMove() throws DataAccessException {
@@ -83,4 +130,19 @@ public class MakeMoveTest {
         GameData stored = gameDAO.getGame(gameID).get();
         assertEquals(TeamColor.WHITE, stored.game().getTeamTurn());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("A promotion to a king or pawn is rejected as an illegal move")
+    void rejectsImpossiblePromotion() throws DataAccessException {
+        gameDAO.saveGame(gameID, ChessGame.fromFen("k7/4P3/8/8/8/8/8/4K3 w - - 0 1"));
+        for (ChessPiece.PieceType promotion : List.of(ChessPiece.PieceType.KING, ChessPiece.PieceType.PAWN)) {
+            ChessMove move = new ChessMove(ChessPosition.fromAlgebraic("e7"),
+                    ChessPosition.fromAlgebraic("e8"), promotion);
+
+            GameService.MakeMoveResult moveResult = gameService.makeMove(whiteAuthToken, gameID, move);
+
+            assertFalse(moveResult.success(), "Move should be rejected");
+            assertTrue(moveResult.message().toLowerCase().contains("illegal"), "Error should mention illegality");
+        }
+    }
+}
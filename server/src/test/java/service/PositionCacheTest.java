@@ -0,0 +1,60 @@
+package service;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import chess.LegalMoves;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PositionCacheTest {
+
+    private static ChessMove move(String coordinates) {
+        return new ChessMove(ChessPosition.fromAlgebraic(coordinates.substring(0, 2)),
+                ChessPosition.fromAlgebraic(coordinates.substring(2, 4)), null);
+    }
+
+    @Test
+    @DisplayName("A position seen in one game is a hit in another")
+    void sharedAcrossGames() throws InvalidMoveException {
+        PositionCache cache = new PositionCache(16);
+        ChessGame first = new ChessGame();
+        first.makeMove(move("e2e4"));
+        LegalMoves moves = cache.get(first);
+
+        ChessGame second = new ChessGame();
+        second.makeMove(move("e2e4"));
+        assertSame(moves, cache.get(second));
+
+        PositionCache.Stats stats = cache.stats();
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.misses());
+        assertEquals(0.5, stats.hitRate());
+    }
+
+    @Test
+    @DisplayName("The least recently used position is evicted when full")
+    void evictsLeastRecentlyUsed() throws InvalidMoveException {
+        PositionCache cache = new PositionCache(2);
+        ChessGame start = new ChessGame();
+        ChessGame e4 = new ChessGame();
+        e4.makeMove(move("e2e4"));
+        ChessGame d4 = new ChessGame();
+        d4.makeMove(move("d2d4"));
+
+        cache.get(start);
+        cache.get(e4);
+        cache.get(start);
+        cache.get(d4);
+
+        PositionCache.Stats stats = cache.stats();
+        assertEquals(1, stats.evictions());
+        assertEquals(2, stats.size());
+        cache.get(start);
+        assertEquals(2, cache.stats().hits(), "the start position was used recently and should remain");
+        cache.get(e4);
+        assertEquals(4, cache.stats().misses(), "e4 should have been evicted");
+    }
+}
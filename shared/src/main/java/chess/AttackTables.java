@@ -0,0 +1,241 @@
+package chess;
+
+/**
+ * Precomputed attack sets used by move generation.
+ * <p>
+ * Knight, king and pawn attacks are looked up directly by square. Rook and
+ * bishop attacks depend on which squares are occupied, so they use magic
+ * bitboards: the blockers on a piece's relevant rays are multiplied by a
+ * per-square magic number and the top bits of the product index a table
+ * holding the attack set for that blocker arrangement.
+ */
+public final class AttackTables {
+
+    private static final long[] ROOK_MAGICS = {
+            0x0080008420144000L, 0x0140001000402000L, 0x8100200100081040L, 0x0580100181040800L,
+            0x0480040002480180L, 0x020002001004C108L, 0x06002600180104ACL, 0x0A00010200804024L,
+            0x1102800320814002L, 0xC000808040002000L, 0x0202802000821000L, 0x4210800800801000L,
+            0x8008808044004800L, 0x0006002418100200L, 0x0A00800200010080L, 0x0202000208804114L,
+            0x2010208000400080L, 0x1080484004201000L, 0x1062060020408410L, 0x4810010009001024L,
+            0x4400808008000401L, 0x9421010002080400L, 0x4208840002100801L, 0x8500020000804104L,
+            0x20A0400080208000L, 0x8840008080402008L, 0x0450200080100080L, 0x00100400C02800C0L,
+            0x0A48000880040080L, 0x1100020080800400L, 0x000A921400900148L, 0x0033004600008904L,
+            0x4202804002800020L, 0x3118804202002504L, 0x0004208842001200L, 0x0014C80084801000L,
+            0x0000080080800400L, 0x0922800400800200L, 0x8442000142008418L, 0x0020800040800100L,
+            0x1400400080008020L, 0x0010002008484002L, 0x0400200010008080L, 0x4028001000088080L,
+            0x4408000400808008L, 0x0129000400090052L, 0x8001001200110004L, 0x4000804084020001L,
+            0x1080002080400080L, 0x6A0B950022004200L, 0x8004401200268200L, 0x0002000820411600L,
+            0x0481480080040280L, 0xC001000802040100L, 0x00D1000C06000300L, 0x0026010084004200L,
+            0x2001C81100208001L, 0x0040002080110041L, 0x00410011A000400DL, 0x2081002208041001L,
+            0x0002000804201002L, 0x5101000A28040029L, 0x0100080112489004L, 0x02000E4400288102L
+    };
+
+    private static final long[] BISHOP_MAGICS = {
+            0x9120024202040010L, 0x2848084884044042L, 0x211000C20041A022L, 0x4002208A01403034L,
+            0x0004042004112000L, 0x6002021004120500L, 0x0022080202101041L, 0x0102020382849000L,
+            0x0000082089840500L, 0x400204C104010200L, 0x0022460202060900L, 0x0400110502000010L,
+            0x10A9840420020000L, 0x0024120150080184L, 0x0008640288443200L, 0x822000908C901000L,
+            0x0488100408084810L, 0x0010402022008910L, 0x0084000808002208L, 0x0006800802024012L,
+            0x0246008420210880L, 0x0083050200808408L, 0x2004000231040200L, 0x0A04820504088684L,
+            0x0002A80120089050L, 0x1410020008320C20L, 0x8000300008008020L, 0x0344010084200880L,
+            0x6003010001104000L, 0x0008164002004214L, 0x021811000A014100L, 0x0242020020884140L,
+            0x0001104005088800L, 0x0002105069040100L, 0x0200805001010402L, 0x4001020081880080L,
+            0x06402080202A0020L, 0x0201100080010060L, 0x03282A04002080C0L, 0x02040040802206A0L,
+            0x2008822840482090L, 0x40008C0920080805L, 0x1002002024200800L, 0x080D204202200800L,
+            0x0061510212002404L, 0x2448101002108020L, 0x44A1080091100080L, 0x0809014312000900L,
+            0x0200611C10402004L, 0x040E010082104006L, 0x0000209400880002L, 0x1002000442022020L,
+            0x1200000420820040L, 0x1000091021420204L, 0x0021200202004020L, 0x0220028401002200L,
+            0x100603C201904820L, 0x020000420201208BL, 0x0102000422055002L, 0x60C6A04202104400L,
+            0x0224000010020880L, 0x0001122044410204L, 0x408C902002042848L, 0x2404010448020040L
+    };
+
+    private static final int[][] ROOK_DIRECTION = {
+            {1, 0}, {-1, 0}, {0, 1}, {0, -1}
+    };
+
+    private static final int[][] BISHOP_DIRECTION = {
+            {1, 1}, {1, -1}, {-1, 1}, {-1, -1}
+    };
+
+    private static final int[][] KING_DIRECTION = {
+            {1, 1}, {1, -1}, {-1, 1}, {-1, -1},
+            {1, 0}, {-1, 0}, {0, 1}, {0, -1}
+    };
+
+    private static final int[][] KNIGHT_DIRECTION = {
+            {2, 1}, {2, -1}, {-2, 1}, {-2, -1},
+            {1, 2}, {-1, 2}, {1, -2}, {-1, -2}
+    };
+
+    private static final long[] KNIGHT_ATTACKS = new long[64];
+    private static final long[] KING_ATTACKS = new long[64];
+    private static final long[][] PAWN_ATTACKS = new long[2][64];
+
+    private static final long[] ROOK_MASKS = new long[64];
+    private static final int[] ROOK_SHIFTS = new int[64];
+    private static final long[][] ROOK_TABLE = new long[64][];
+
+    private static final long[] BISHOP_MASKS = new long[64];
+    private static final int[] BISHOP_SHIFTS = new int[64];
+    private static final long[][] BISHOP_TABLE = new long[64][];
+
+    private static final long[][] BETWEEN = new long[64][64];
+    private static final long[][] LINE = new long[64][64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            KNIGHT_ATTACKS[square] = stepAttacks(square, KNIGHT_DIRECTION);
+            KING_ATTACKS[square] = stepAttacks(square, KING_DIRECTION);
+            PAWN_ATTACKS[ChessGame.TeamColor.WHITE.ordinal()][square] = stepAttacks(square, new int[][] {{1, 1}, {1, -1}});
+            PAWN_ATTACKS[ChessGame.TeamColor.BLACK.ordinal()][square] = stepAttacks(square, new int[][] {{-1, 1}, {-1, -1}});
+
+            initMagic(square, ROOK_DIRECTION, ROOK_MAGICS, ROOK_MASKS, ROOK_SHIFTS, ROOK_TABLE);
+            initMagic(square, BISHOP_DIRECTION, BISHOP_MAGICS, BISHOP_MASKS, BISHOP_SHIFTS, BISHOP_TABLE);
+        }
+        for (int from = 0; from < 64; from++) {
+            for (int to = 0; to < 64; to++) {
+                initLine(from, to);
+            }
+        }
+    }
+
+    private AttackTables() {
+    }
+
+    public static long knightAttacks(int square) {
+        return KNIGHT_ATTACKS[square];
+    }
+
+    public static long kingAttacks(int square) {
+        return KING_ATTACKS[square];
+    }
+
+    /**
+     * @return the squares a pawn of the given colour attacks from a square
+     */
+    public static long pawnAttacks(ChessGame.TeamColor color, int square) {
+        return PAWN_ATTACKS[color.ordinal()][square];
+    }
+
+    /**
+     * @param square   the rook's square
+     * @param occupied every occupied square on the board
+     * @return the squares a rook attacks, including the first blocker on each ray
+     */
+    public static long rookAttacks(int square, long occupied) {
+        int index = (int) (((occupied & ROOK_MASKS[square]) * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square]);
+        return ROOK_TABLE[square][index];
+    }
+
+    /**
+     * @param square   the bishop's square
+     * @param occupied every occupied square on the board
+     * @return the squares a bishop attacks, including the first blocker on each ray
+     */
+    public static long bishopAttacks(int square, long occupied) {
+        int index = (int) (((occupied & BISHOP_MASKS[square]) * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square]);
+        return BISHOP_TABLE[square][index];
+    }
+
+    public static long queenAttacks(int square, long occupied) {
+        return rookAttacks(square, occupied) | bishopAttacks(square, occupied);
+    }
+
+    /**
+     * @return the squares strictly between two squares that share a rank, file or
+     * diagonal, or an empty set if they are not aligned
+     */
+    public static long between(int from, int to) {
+        return BETWEEN[from][to];
+    }
+
+    /**
+     * @return the whole rank, file or diagonal running through two squares
+     * (edge to edge), or an empty set if they are not aligned
+     */
+    public static long line(int from, int to) {
+        return LINE[from][to];
+    }
+
+    private static void initLine(int from, int to) {
+        if (from == to) {
+            return;
+        }
+        long fromBit = Bitboards.bit(from);
+        long toBit = Bitboards.bit(to);
+        if ((rookAttacks(from, Bitboards.EMPTY) & toBit) != 0) {
+            BETWEEN[from][to] = rookAttacks(from, toBit) & rookAttacks(to, fromBit);
+            LINE[from][to] = (rookAttacks(from, Bitboards.EMPTY) & rookAttacks(to, Bitboards.EMPTY))
+                    | fromBit | toBit;
+        } else if ((bishopAttacks(from, Bitboards.EMPTY) & toBit) != 0) {
+            BETWEEN[from][to] = bishopAttacks(from, toBit) & bishopAttacks(to, fromBit);
+            LINE[from][to] = (bishopAttacks(from, Bitboards.EMPTY) & bishopAttacks(to, Bitboards.EMPTY))
+                    | fromBit | toBit;
+        }
+    }
+
+    private static long stepAttacks(int square, int[][] directions) {
+        long attacks = Bitboards.EMPTY;
+        for (var direction : directions) {
+            int row = Bitboards.rowOf(square) + direction[0];
+            int col = Bitboards.columnOf(square) + direction[1];
+            if (Bitboards.isOnBoard(row, col)) {
+                attacks |= Bitboards.bit(Bitboards.square(row, col));
+            }
+        }
+        return attacks;
+    }
+
+    private static long slidingAttacks(int square, long occupied, int[][] directions) {
+        long attacks = Bitboards.EMPTY;
+        for (var direction : directions) {
+            int row = Bitboards.rowOf(square) + direction[0];
+            int col = Bitboards.columnOf(square) + direction[1];
+            while (Bitboards.isOnBoard(row, col)) {
+                long bit = Bitboards.bit(Bitboards.square(row, col));
+                attacks |= bit;
+                if ((occupied & bit) != 0) {
+                    break;
+                }
+                row += direction[0];
+                col += direction[1];
+            }
+        }
+        return attacks;
+    }
+
+    /**
+     * The relevant blockers for a slider are the squares on its rays, minus the
+     * last square of each ray (a piece there can never hide anything behind it)
+     */
+    private static long relevantMask(int square, int[][] directions) {
+        long mask = Bitboards.EMPTY;
+        for (var direction : directions) {
+            int row = Bitboards.rowOf(square) + direction[0];
+            int col = Bitboards.columnOf(square) + direction[1];
+            while (Bitboards.isOnBoard(row + direction[0], col + direction[1])) {
+                mask |= Bitboards.bit(Bitboards.square(row, col));
+                row += direction[0];
+                col += direction[1];
+            }
+        }
+        return mask;
+    }
+
+    private static void initMagic(int square, int[][] directions, long[] magics,
+                                  long[] masks, int[] shifts, long[][] tables) {
+        long mask = relevantMask(square, directions);
+        int bits = Bitboards.count(mask);
+        masks[square] = mask;
+        shifts[square] = 64 - bits;
+        tables[square] = new long[1 << bits];
+
+        // walk every subset of the mask (Carry-Rippler trick)
+        long blockers = Bitboards.EMPTY;
+        do {
+            int index = (int) ((blockers * magics[square]) >>> shifts[square]);
+            tables[square][index] = slidingAttacks(square, blockers, directions);
+            blockers = (blockers - mask) & mask;
+        } while (blockers != 0);
+    }
+}
@@ -0,0 +1,72 @@
+package chess;
+
+/**
+ * Helpers for working with 64-bit square sets.
+ * <p>
+ * Squares are numbered 0-63 starting at a1 and moving across each rank,
+ * so a1 = 0, h1 = 7, a2 = 8 ... h8 = 63. Bit n of a bitboard is set when
+ * square n belongs to the set.
+ */
+public final class Bitboards {
+
+    public static final long EMPTY = 0L;
+
+    public static final long FILE_A = 0x0101010101010101L;
+    public static final long FILE_H = FILE_A << 7;
+
+    public static final long RANK_1 = 0xFFL;
+    public static final long RANK_2 = RANK_1 << 8;
+    public static final long RANK_7 = RANK_1 << 48;
+    public static final long RANK_8 = RANK_1 << 56;
+
+    private Bitboards() {
+    }
+
+    /**
+     * @return the square index of a 1-based row and column
+     */
+    public static int square(int row, int col) {
+        return (row - 1) * 8 + (col - 1);
+    }
+
+    public static int square(ChessPosition position) {
+        return square(position.getRow(), position.getColumn());
+    }
+
+    /**
+     * @return the 1-based row of a square index
+     */
+    public static int rowOf(int square) {
+        return (square >>> 3) + 1;
+    }
+
+    /**
+     * @return the 1-based column of a square index
+     */
+    public static int columnOf(int square) {
+        return (square & 7) + 1;
+    }
+
+    public static boolean isOnBoard(int row, int col) {
+        return row >= 1 && row <= 8 && col >= 1 && col <= 8;
+    }
+
+    public static long bit(int square) {
+        return 1L << square;
+    }
+
+    public static boolean contains(long set, int square) {
+        return (set & (1L << square)) != 0;
+    }
+
+    /**
+     * @return the lowest square in a non-empty set
+     */
+    public static int first(long set) {
+        return Long.numberOfTrailingZeros(set);
+    }
+
+    public static int count(long set) {
+        return Long.bitCount(set);
+    }
+}
@@ -0,0 +1,99 @@
+package chess;
+
+import java.util.Arrays;
+
+import static chess.ChessGame.TeamColor.WHITE;
+import static chess.ChessPiece.PieceType.KING;
+import static chess.ChessPiece.PieceType.ROOK;
+
+/**
+ * Castling rights packed into 4 bits, one per king/side combination.
+ * <p>
+ * A right is lost for good when the king or that rook leaves its home
+ * square, or the rook is captured there. Each square has a mask of the
+ * rights that survive a move touching it, so updating the rights after any
+ * move is two ANDs and never needs the move history.
+ */
+public final class CastlingRights {
+    public static final int NONE = 0;
+    public static final int WHITE_KINGSIDE = 1;
+    public static final int WHITE_QUEENSIDE = 2;
+    public static final int BLACK_KINGSIDE = 4;
+    public static final int BLACK_QUEENSIDE = 8;
+    public static final int ALL = 15;
+
+    private static final int[] KEPT_AFTER_TOUCHING = new int[64];
+
+    static {
+        Arrays.fill(KEPT_AFTER_TOUCHING, ALL);
+        KEPT_AFTER_TOUCHING[4] = ALL & ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        KEPT_AFTER_TOUCHING[7] = ALL & ~WHITE_KINGSIDE;
+        KEPT_AFTER_TOUCHING[0] = ALL & ~WHITE_QUEENSIDE;
+        KEPT_AFTER_TOUCHING[60] = ALL & ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        KEPT_AFTER_TOUCHING[63] = ALL & ~BLACK_KINGSIDE;
+        KEPT_AFTER_TOUCHING[56] = ALL & ~BLACK_QUEENSIDE;
+    }
+
+    private CastlingRights() {
+    }
+
+    /**
+     * @return the rights left after a move from one square to another
+     */
+    public static int update(int rights, int from, int to) {
+        return rights & KEPT_AFTER_TOUCHING[from] & KEPT_AFTER_TOUCHING[to];
+    }
+
+    public static int kingside(ChessGame.TeamColor team) {
+        return team == WHITE ? WHITE_KINGSIDE : BLACK_KINGSIDE;
+    }
+
+    public static int queenside(ChessGame.TeamColor team) {
+        return team == WHITE ? WHITE_QUEENSIDE : BLACK_QUEENSIDE;
+    }
+
+    /**
+     * Works out the rights a board set up from scratch should have: a side may
+     * castle wherever its king and rook still stand on their starting squares
+     */
+    public static int fromPlacement(ChessBoard board) {
+        int rights = NONE;
+        for (ChessGame.TeamColor team : ChessGame.TeamColor.values()) {
+            int homeRank = team == WHITE ? 0 : 56;
+            if (!Bitboards.contains(board.getPieces(team, KING), homeRank + 4)) {
+                continue;
+            }
+            long rooks = board.getPieces(team, ROOK);
+            if (Bitboards.contains(rooks, homeRank + 7)) {
+                rights |= kingside(team);
+            }
+            if (Bitboards.contains(rooks, homeRank)) {
+                rights |= queenside(team);
+            }
+        }
+        return rights;
+    }
+
+    /**
+     * @return the rights in FEN form, such as "KQkq", or "-" for none
+     */
+    public static String toString(int rights) {
+        if (rights == NONE) {
+            return "-";
+        }
+        StringBuilder text = new StringBuilder(4);
+        if ((rights & WHITE_KINGSIDE) != 0) {
+            text.append('K');
+        }
+        if ((rights & WHITE_QUEENSIDE) != 0) {
+            text.append('Q');
+        }
+        if ((rights & BLACK_KINGSIDE) != 0) {
+            text.append('k');
+        }
+        if ((rights & BLACK_QUEENSIDE) != 0) {
+            text.append('q');
+        }
+        return text.toString();
+    }
+}
@@ -1,7 +1,13 @@
 package chess;
 
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
 import java.util.Arrays;
-import java.util.Objects;
 
 import static chess.ChessPiece.*;
 import static chess.ChessGame.TeamColor.*;
@@ -11,27 +17,127 @@ import static chess.ChessPiece.PieceType.*;
 /**
  * A chessboard that can hold and rearrange chess pieces.
  * <p>
+ * The board is stored as bitboards: one 64-bit set per colour/type
+ * combination plus an occupancy set per team (see {@link Bitboards}
+ * for the square numbering). In JSON it keeps the 8x8 array shape it has
+ * always had, so games saved before the switch to bitboards still load.
+ * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
+@JsonAdapter(ChessBoard.GsonAdapter.class)
 public class ChessBoard {
-    private final ChessPiece[][] board = new ChessPiece[8][8];
+    public static final int NO_PIECE = -1;
+
+    private static final PieceType[] PIECE_TYPES = PieceType.values();
+
+    private final long[] pieceSets = new long[12];
+    private final long[] teamSets = new long[2];
+    private long key;
+    private long pawnKey;
+    private int midgameScore;
+    private int endgameScore;
+    private int phase;
+    private long materialKey;
+
     public ChessBoard() {
 
     }
 
+    /**
+     * Creates an independent copy of another board
+     *
+     * @param other the board to copy
+     */
+    public ChessBoard(ChessBoard other) {
+        System.arraycopy(other.pieceSets, 0, pieceSets, 0, pieceSets.length);
+        System.arraycopy(other.teamSets, 0, teamSets, 0, teamSets.length);
+        key = other.key;
+        pawnKey = other.pawnKey;
+        midgameScore = other.midgameScore;
+        endgameScore = other.endgameScore;
+        phase = other.phase;
+        materialKey = other.materialKey;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (o == null || getClass() != o.getClass()) {
             return false;
         }
         ChessBoard that = (ChessBoard) o;
-        return Objects.deepEquals(board, that.board);
+        return Arrays.equals(pieceSets, that.pieceSets);
     }
 
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(board);
+        return Long.hashCode(key);
+    }
+
+    /**
+     * @return the Zobrist key of the pieces on the board, kept up to date as
+     * pieces are added, moved and removed
+     */
+    public long getKey() {
+        return key;
+    }
+
+    /**
+     * @return a Zobrist key of just the pawns and kings, for caching pawn
+     * structure and king shelter
+     */
+    public long getPawnKey() {
+        return pawnKey;
+    }
+
+    /**
+     * @return white's midgame material and piece-square total minus black's
+     */
+    public int getMidgameScore() {
+        return midgameScore;
+    }
+
+    /**
+     * @return white's endgame material and piece-square total minus black's
+     */
+    public int getEndgameScore() {
+        return endgameScore;
+    }
+
+    /**
+     * @return the non-pawn material left on the board, from
+     * {@link PieceSquareTables#MAX_PHASE} at the start down to 0 with only kings and pawns
+     */
+    public int getPhase() {
+        return phase;
+    }
+
+    /**
+     * @return the count of each kind of piece on the board, as a {@link Material} signature
+     */
+    public long getMaterialKey() {
+        return materialKey;
+    }
+
+    /**
+     * @return the bitboard slot used for a colour/type combination
+     */
+    public static int pieceIndex(ChessGame.TeamColor color, PieceType type) {
+        return color.ordinal() * 6 + type.ordinal();
+    }
+
+    /**
+     * @return the piece type stored in a bitboard slot
+     */
+    public static PieceType typeOf(int index) {
+        return PIECE_TYPES[index % 6];
+    }
+
+    /**
+     * @return the team stored in a bitboard slot
+     */
+    public static ChessGame.TeamColor colorOf(int index) {
+        return index < 6 ? WHITE : BLACK;
     }
 
     /**
@@ -41,20 +147,18 @@ public class ChessBoard {
      * @param piece    the piece to add
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        int row = position.getRow()-1;
-        int col = position.getColumn()-1;
-        board[row][col] = piece;
+        int square = Bitboards.square(position);
+        int current = pieceIndexAt(square);
+        if (current != NO_PIECE) {
+            removePiece(square, current);
+        }
+        if (piece != null) {
+            putPiece(square, pieceIndex(piece.getTeamColor(), piece.getPieceType()));
+        }
     }
 
     public ChessPiece makePiece(ChessPiece.PieceType piece, ChessGame.TeamColor color) {
-        return switch (piece) {
-            case PAWN -> new Pawn(color);
-            case ROOK -> new Rook(color);
-            case KNIGHT -> new Knight(color);
-            case BISHOP -> new Bishop(color);
-            case QUEEN -> new Queen(color);
-            case KING -> new King(color);
-        };
+        return ChessPiece.of(color, piece);
     }
 
     /**
@@ -65,35 +169,335 @@ public class ChessBoard {
      * position
      */
     public ChessPiece getPiece(ChessPosition position) {
-        int row = position.getRow() -1 ;
-        int col = position.getColumn() -1 ;
-        return board[row][col];
+        return getPiece(Bitboards.square(position));
     }
 
     /**
-     * Sets the board to the default starting board
-     * (How the game of chess normally starts)
+     * @param square square index in {@link Bitboards} numbering
+     * @return the piece on that square, or null if it is empty
      */
-    public void resetBoard() {
-        for (int row = 0; row < 8; row++) {
-            for (int col = 0; col < 8; col++) {
-                board[row][col] = null;
+    public ChessPiece getPiece(int square) {
+        int index = pieceIndexAt(square);
+        return index == NO_PIECE ? null : ChessPiece.ofIndex(index);
+    }
+
+    /**
+     * @return the bitboard slot of the piece on a square, or {@link #NO_PIECE}
+     */
+    public int pieceIndexAt(int square) {
+        long bit = Bitboards.bit(square);
+        int first;
+        if ((teamSets[WHITE.ordinal()] & bit) != 0) {
+            first = 0;
+        } else if ((teamSets[BLACK.ordinal()] & bit) != 0) {
+            first = 6;
+        } else {
+            return NO_PIECE;
+        }
+        for (int index = first; index < first + 6; index++) {
+            if ((pieceSets[index] & bit) != 0) {
+                return index;
             }
         }
+        return NO_PIECE;
+    }
 
-        for (int col = 1; col < 9; col++) {
-            addPiece(new ChessPosition(2, col), makePiece(PAWN, WHITE));
-            addPiece(new ChessPosition(7, col), makePiece(PAWN, BLACK));
+    /**
+     * @return every square holding the given colour and type of piece
+     */
+    public long getPieces(ChessGame.TeamColor color, PieceType type) {
+        return pieceSets[pieceIndex(color, type)];
+    }
+
+    /**
+     * @return every square holding a piece of the given team
+     */
+    public long getTeamPieces(ChessGame.TeamColor color) {
+        return teamSets[color.ordinal()];
+    }
+
+    /**
+     * @return every occupied square
+     */
+    public long getOccupied() {
+        return teamSets[0] | teamSets[1];
+    }
+
+    /**
+     * @return the square of the given team's king, or -1 if it has none
+     */
+    public int kingSquare(ChessGame.TeamColor color) {
+        long king = getPieces(color, KING);
+        return king == 0 ? -1 : Bitboards.first(king);
+    }
+
+    /**
+     * Finds every piece of one team that attacks a square by looking outward
+     * from that square: a knight sitting a knight's jump away attacks it, a rook
+     * or queen sitting at the first blocker along a rank or file attacks it, and
+     * so on.
+     *
+     * @param square   the target square
+     * @param attacker the team doing the attacking
+     * @param occupied the occupancy to use for sliding rays
+     * @return the squares of the attacking pieces
+     */
+    public long attackersTo(int square, ChessGame.TeamColor attacker, long occupied) {
+        long rooksQueens = getPieces(attacker, ROOK) | getPieces(attacker, QUEEN);
+        long bishopsQueens = getPieces(attacker, BISHOP) | getPieces(attacker, QUEEN);
+        return (AttackTables.knightAttacks(square) & getPieces(attacker, KNIGHT))
+                | (AttackTables.kingAttacks(square) & getPieces(attacker, KING))
+                | (AttackTables.pawnAttacks(attacker.other(), square) & getPieces(attacker, PAWN))
+                | (AttackTables.rookAttacks(square, occupied) & rooksQueens)
+                | (AttackTables.bishopAttacks(square, occupied) & bishopsQueens);
+    }
+
+    /**
+     * @return True if any piece of the attacking team attacks the square
+     */
+    public boolean isSquareAttacked(int square, ChessGame.TeamColor attacker) {
+        return attackersTo(square, attacker, getOccupied()) != 0;
+    }
+
+    /**
+     * Moves a piece in place, capturing whatever stands on the end square and
+     * applying any promotion. A king moving two files castles, taking the rook
+     * along, and a pawn moving diagonally onto an empty square captures en
+     * passant. No legality checks are made.
+     * <p>
+     * The returned undo record packs the start square (bits 0-5), end square
+     * (bits 6-11), moving piece slot (bits 12-15), captured piece slot plus
+     * one (bits 16-19, zero when nothing was captured) and the move's
+     * {@link Moves} flags (bits 20-23).
+     *
+     * @param move the move to play
+     * @return an undo record to hand back to {@link #unmakeMove(int)}
+     */
+    public int makeMove(ChessMove move) {
+        return makeMove(Moves.of(move, this));
+    }
+
+    /**
+     * Plays a packed move (see {@link Moves}) the same way as {@link #makeMove(ChessMove)}
+     *
+     * @return an undo record to hand back to {@link #unmakeMove(int)}
+     */
+    public int makeMove(int move) {
+        int from = Moves.from(move);
+        int to = Moves.to(move);
+        int flags = Moves.flags(move);
+        int moved = pieceIndexAt(from);
+        int capturedSquare = flags == Moves.EN_PASSANT ? enPassantVictim(to, moved) : to;
+        int captured = pieceIndexAt(capturedSquare);
+
+        removePiece(from, moved);
+        if (captured != NO_PIECE) {
+            removePiece(capturedSquare, captured);
         }
+        int placed = moved;
+        if (Moves.isPromotion(move)) {
+            placed = (moved / 6) * 6 + Moves.promotion(move).ordinal();
+        }
+        putPiece(to, placed);
+
+        if (flags == Moves.KING_CASTLE) {
+            movePiece(to + 1, to - 1);
+        } else if (flags == Moves.QUEEN_CASTLE) {
+            movePiece(to - 2, to + 1);
+        }
+
+        return from | (to << 6) | (moved << 12) | ((captured + 1) << 16) | (flags << 20);
+    }
+
+    /**
+     * Reverts a move made by {@link #makeMove(ChessMove)}. Moves must be undone
+     * in the reverse order they were made.
+     *
+     * @param undo the record returned when the move was made
+     */
+    public void unmakeMove(int undo) {
+        int from = undo & 0x3F;
+        int to = (undo >>> 6) & 0x3F;
+        int moved = (undo >>> 12) & 0xF;
+        int captured = ((undo >>> 16) & 0xF) - 1;
+        int flags = (undo >>> 20) & 0xF;
+
+        if (flags == Moves.KING_CASTLE) {
+            movePiece(to - 1, to + 1);
+        } else if (flags == Moves.QUEEN_CASTLE) {
+            movePiece(to + 1, to - 2);
+        }
+        removePiece(to, pieceIndexAt(to));
+        if (captured != NO_PIECE) {
+            putPiece(flags == Moves.EN_PASSANT ? enPassantVictim(to, moved) : to, captured);
+        }
+        putPiece(from, moved);
+    }
+
+    /**
+     * @return the square of the pawn taken when a pawn captures en passant onto {@code to}
+     */
+    private static int enPassantVictim(int to, int movedPawn) {
+        return movedPawn < 6 ? to - 8 : to + 8;
+    }
+
+    private void movePiece(int from, int to) {
+        int index = pieceIndexAt(from);
+        removePiece(from, index);
+        putPiece(to, index);
+    }
+
+    private void putPiece(int square, int index) {
+        long bit = Bitboards.bit(square);
+        pieceSets[index] |= bit;
+        teamSets[index / 6] |= bit;
+        updateDerived(square, index, 1);
+    }
+
+    private void removePiece(int square, int index) {
+        long mask = ~Bitboards.bit(square);
+        pieceSets[index] &= mask;
+        teamSets[index / 6] &= mask;
+        updateDerived(square, index, -1);
+    }
+
+    /**
+     * Adds (sign 1) or takes away (sign -1) a piece's share of the keys,
+     * scores and phase
+     */
+    private void updateDerived(int square, int index, int sign) {
+        long pieceKey = Zobrist.piece(index, square);
+        key ^= pieceKey;
+        int type = index % 6;
+        if (type == PAWN.ordinal() || type == KING.ordinal()) {
+            pawnKey ^= pieceKey;
+        }
+        // black's points count against white
+        int signed = index < 6 ? sign : -sign;
+        midgameScore += signed * PieceSquareTables.midgame(index, square);
+        endgameScore += signed * PieceSquareTables.endgame(index, square);
+        phase += sign * PieceSquareTables.phaseWeight(index);
+        materialKey += sign * Material.delta(index, square);
+    }
+
+    /**
+     * Sets the board to the default starting board
+     * (How the game of chess normally starts)
+     */
+    public void resetBoard() {
+        Arrays.fill(pieceSets, Bitboards.EMPTY);
+
+        pieceSets[pieceIndex(WHITE, PAWN)] = Bitboards.RANK_2;
+        pieceSets[pieceIndex(BLACK, PAWN)] = Bitboards.RANK_7;
 
         ChessPiece.PieceType[] backRank = { ROOK, KNIGHT, BISHOP, QUEEN, KING, BISHOP, KNIGHT, ROOK };
         for (int col = 1; col < 9; col++) {
-            addPiece(new ChessPosition(1, col), makePiece(backRank[col-1], WHITE));
-            addPiece(new ChessPosition(8, col), makePiece(backRank[col-1], BLACK));
+            long file = Bitboards.FILE_A << (col - 1);
+            pieceSets[pieceIndex(WHITE, backRank[col-1])] |= file & Bitboards.RANK_1;
+            pieceSets[pieceIndex(BLACK, backRank[col-1])] |= file & Bitboards.RANK_8;
+        }
+
+        teamSets[WHITE.ordinal()] = Bitboards.RANK_1 | Bitboards.RANK_2;
+        teamSets[BLACK.ordinal()] = Bitboards.RANK_7 | Bitboards.RANK_8;
+
+        key = 0;
+        pawnKey = 0;
+        midgameScore = 0;
+        endgameScore = 0;
+        phase = 0;
+        materialKey = 0;
+        for (int index = 0; index < pieceSets.length; index++) {
+            for (long pieces = pieceSets[index]; pieces != 0; pieces &= pieces - 1) {
+                updateDerived(Bitboards.first(pieces), index, 1);
+            }
         }
     }
 
+    /**
+     * Reads and writes boards as {@code {"board": [[...], ...]}}, eight rows of
+     * eight pieces or nulls from row 1, the shape Gson's reflection gave the
+     * old array-backed board. Boards saved as bitboard fields are read too.
+     */
+    static class GsonAdapter extends TypeAdapter<ChessBoard> {
+        private static final ChessPiece.GsonAdapter PIECES = new ChessPiece.GsonAdapter();
+
+        @Override
+        public void write(JsonWriter out, ChessBoard board) throws IOException {
+            out.beginObject();
+            out.name("board").beginArray();
+            for (int row = 1; row < 9; row++) {
+                out.beginArray();
+                for (int col = 1; col < 9; col++) {
+                    ChessPiece piece = board.getPiece(ChessPosition.of(row, col));
+                    if (piece == null) {
+                        out.nullValue();
+                    } else {
+                        PIECES.write(out, piece);
+                    }
+                }
+                out.endArray();
+            }
+            out.endArray();
+            out.endObject();
+        }
+
+        @Override
+        public ChessBoard read(JsonReader in) throws IOException {
+            ChessBoard board = new ChessBoard();
+            boolean found = false;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "board" -> {
+                        readSquares(in, board);
+                        found = true;
+                    }
+                    case "pieceSets" -> {
+                        readPieceSets(in, board);
+                        found = true;
+                    }
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            if (!found) {
+                throw new IOException("Chess board has neither a board array nor piece sets");
+            }
+            return board;
+        }
 
+        private static void readSquares(JsonReader in, ChessBoard board) throws IOException {
+            in.beginArray();
+            for (int row = 1; in.hasNext(); row++) {
+                in.beginArray();
+                for (int col = 1; in.hasNext(); col++) {
+                    if (row > 8 || col > 8) {
+                        throw new IOException("Chess board is larger than 8x8");
+                    }
+                    if (in.peek() == JsonToken.NULL) {
+                        in.nextNull();
+                    } else {
+                        board.addPiece(ChessPosition.of(row, col), PIECES.read(in));
+                    }
+                }
+                in.endArray();
+            }
+            in.endArray();
+        }
+
+        private static void readPieceSets(JsonReader in, ChessBoard board) throws IOException {
+            in.beginArray();
+            for (int index = 0; in.hasNext(); index++) {
+                if (index >= 12) {
+                    throw new IOException("Chess board has more than 12 piece sets");
+                }
+                for (long pieces = in.nextLong(); pieces != 0; pieces &= pieces - 1) {
+                    board.addPiece(ChessPosition.ofSquare(Bitboards.first(pieces)), ChessPiece.ofIndex(index));
+                }
+            }
+            in.endArray();
+        }
+    }
 }
 
 
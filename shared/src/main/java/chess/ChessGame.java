@@ -1,9 +1,7 @@
 package chess;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.List;
-import java.util.Objects;
 
 /**
  * For a class that can manage a chess game, making moves on a board
@@ -13,10 +11,41 @@ import java.util.Objects;
  */
 public class ChessGame {
 
+    /**
+     * Marks "no square", such as when no en passant capture is available
+     */
+    public static final int NO_SQUARE = -1;
+
     private ChessBoard board;
     private TeamColor team;
     private boolean gameOver = false;
     private TeamColor winner = null;
+    private int castlingRights = CastlingRights.ALL;
+    private int enPassantSquare = NO_SQUARE;
+    private int halfmoveClock = 0;
+    private int fullmoveNumber = 1;
+
+    /**
+     * Position keys from before each move played, oldest first. Only the last
+     * {@link #halfmoveClock} entries can ever repeat the current position.
+     */
+    private long[] keyHistory = new long[16];
+    /** The packed moves played, in step with {@link #keyHistory} */
+    private int[] moveHistory = new int[16];
+    private int historyCount = 0;
+    /** The position before the first move in the history, or null until a move is played */
+    private String startFen = null;
+
+    /**
+     * Each entry packs the board's undo record in the low 32 bits, the castling
+     * rights before the move in the next 4, the en passant square plus one in
+     * the 7 above those, and the halfmove clock from bit 43.
+     */
+    private transient long[] undoStack = new long[64];
+    private transient int undoCount = 0;
+    private transient LegalMoveGenerator generator;
+    /** The legal moves of the last position they were asked for, reused while the position key matches */
+    private transient LegalMoves legalMoves;
 
     public ChessGame() {
         this.board = new ChessBoard();
@@ -24,6 +53,33 @@ public class ChessGame {
         this.team = TeamColor.WHITE;
     }
 
+    /**
+     * Creates an independent copy of this game. The board is copied as a
+     * handful of bitboards, so this is cheap enough to hand one copy to each
+     * worker thread.
+     *
+     * @return a game in the same position that shares no state with this one
+     */
+    public ChessGame copy() {
+        ChessGame copy = new ChessGame(new ChessBoard(board), team);
+        copy.gameOver = gameOver;
+        copy.winner = winner;
+        copy.castlingRights = castlingRights;
+        copy.enPassantSquare = enPassantSquare;
+        copy.halfmoveClock = halfmoveClock;
+        copy.fullmoveNumber = fullmoveNumber;
+        copy.keyHistory = Arrays.copyOf(keyHistory, Math.max(historyCount, 16));
+        copy.moveHistory = Arrays.copyOf(moveHistory, Math.max(historyCount, 16));
+        copy.historyCount = historyCount;
+        copy.startFen = startFen;
+        return copy;
+    }
+
+    ChessGame(ChessBoard board, TeamColor team) {
+        this.board = board;
+        this.team = team;
+    }
+
     public void setGameOver(boolean gameOver) {
         this.gameOver = gameOver;
     }
@@ -56,6 +112,155 @@ public class ChessGame {
         this.team = team;
     }
 
+    /**
+     * @return the castling rights still held, as a {@link CastlingRights} mask
+     */
+    public int getCastlingRights() {
+        return castlingRights;
+    }
+
+    /**
+     * @param castlingRights a {@link CastlingRights} mask
+     */
+    public void setCastlingRights(int castlingRights) {
+        this.castlingRights = castlingRights & CastlingRights.ALL;
+    }
+
+    /**
+     * @return the square the side to move may capture onto en passant, or
+     * {@link #NO_SQUARE}
+     */
+    public int getEnPassantSquare() {
+        return enPassantSquare;
+    }
+
+    /**
+     * Sets the en passant square. It is only kept when a pawn of the side to
+     * move can actually capture onto it, so positions that differ only by an
+     * unusable en passant square hash the same.
+     *
+     * @param square the square behind a pawn that just moved two squares, or
+     *               {@link #NO_SQUARE}
+     */
+    public void setEnPassantSquare(int square) {
+        this.enPassantSquare = square >= 0 && canCaptureOnto(square, team) ? square : NO_SQUARE;
+    }
+
+    private boolean canCaptureOnto(int square, TeamColor capturer) {
+        // a pawn of the capturing team attacks the square exactly when a pawn of
+        // the other team standing on it would attack that pawn
+        return (AttackTables.pawnAttacks(capturer.other(), square)
+                & board.getPieces(capturer, ChessPiece.PieceType.PAWN)) != 0;
+    }
+
+    /**
+     * @return the number of moves since the last capture or pawn move
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    public void setHalfmoveClock(int halfmoveClock) {
+        this.halfmoveClock = halfmoveClock;
+    }
+
+    /**
+     * @return the move number, starting at 1 and going up after each black move
+     */
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    public void setFullmoveNumber(int fullmoveNumber) {
+        this.fullmoveNumber = fullmoveNumber;
+    }
+
+    /**
+     * @return the moves played since the game started or its board was last
+     * set, oldest first, in packed form (see {@link Moves})
+     */
+    public int[] getMoveHistory() {
+        return Arrays.copyOf(moveHistory, historyCount);
+    }
+
+    /**
+     * @return the position {@link #getMoveHistory()} starts from, as FEN
+     */
+    public String getStartFen() {
+        return historyCount == 0 || startFen == null ? toFen() : startFen;
+    }
+
+    /**
+     * Loads a game from Forsyth-Edwards Notation. The halfmove clock and move
+     * number may be left off.
+     *
+     * @param fen a FEN record such as
+     *            {@code "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1"}
+     * @return a game in that position, with no earlier moves
+     * @throws IllegalArgumentException if the record is malformed
+     */
+    public static ChessGame fromFen(CharSequence fen) {
+        return Fen.parse(fen);
+    }
+
+    /**
+     * @return the current position in Forsyth-Edwards Notation
+     */
+    public String toFen() {
+        return Fen.format(this);
+    }
+
+    /**
+     * Counts how many times the current position has occurred, including now.
+     * Only positions since the last capture or pawn move are looked at, and
+     * only those with the same side to move, so this is O(halfmove clock).
+     */
+    public int repetitions() {
+        long key = positionKey();
+        int count = 1;
+        int oldest = Math.max(0, historyCount - halfmoveClock);
+        for (int i = historyCount - 2; i >= oldest; i -= 2) {
+            if (keyHistory[i] == key) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return the draw the side to move could claim right now, or null if none
+     */
+    public DrawReason getDrawClaim() {
+        if (isInsufficientMaterial()) {
+            return DrawReason.INSUFFICIENT_MATERIAL;
+        }
+        if (halfmoveClock >= 100) {
+            return DrawReason.FIFTY_MOVE_RULE;
+        }
+        // a position needs at least four plies to come back each time
+        if (halfmoveClock >= 8 && repetitions() >= 3) {
+            return DrawReason.THREEFOLD_REPETITION;
+        }
+        return null;
+    }
+
+    /**
+     * @return True if neither side has enough material left to ever give mate
+     */
+    public boolean isInsufficientMaterial() {
+        return Material.isInsufficient(board.getMaterialKey());
+    }
+
+    /**
+     * Ways a game can end without a winner
+     */
+    public enum DrawReason {
+        STALEMATE,
+        INSUFFICIENT_MATERIAL,
+        THREEFOLD_REPETITION,
+        FIFTY_MOVE_RULE
+    }
+
     /**
      * Enum identifying the 2 possible teams in a chess game
      */
@@ -80,27 +285,31 @@ public class ChessGame {
         if (this.board == null || this.team == null || that.board == null || that.team == null) {
             return false;
         }
-        return board.equals(that.board) && team == that.team;
+        return board.equals(that.board) && team == that.team
+                && castlingRights == that.castlingRights && enPassantSquare == that.enPassantSquare;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(board, team);
+        return Long.hashCode(positionKey());
     }
 
     /**
-     * Deep clone helper
+     * Gets the Zobrist key of the current position. The piece part is kept up
+     * to date by the board as moves are made, so this never rescans the board.
      *
-     * @param original The original board to be copied
-     * @param copy     The deep copy of the board
-     */
-    private void cloneBoard(ChessBoard original, ChessBoard copy) {
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition position = new ChessPosition(row, col);
-                copy.addPiece(position, original.getPiece(position));
-            }
+     * @return a 64-bit key identifying the pieces, the side to move, the
+     * castling rights and the en passant file
+     */
+    public long positionKey() {
+        long key = board.getKey() ^ Zobrist.castling(castlingRights);
+        if (team == TeamColor.BLACK) {
+            key ^= Zobrist.side();
+        }
+        if (enPassantSquare != NO_SQUARE) {
+            key ^= Zobrist.enPassant(enPassantSquare & 7);
         }
+        return key;
     }
 
     /**
@@ -115,21 +324,64 @@ public class ChessGame {
         if (piece == null) {
             return null;
         }
-        Collection<ChessMove> possibleMoves = piece.pieceMoves(board, startPosition);
-        TeamColor color = piece.getTeamColor();
-        List<ChessMove> legalMoves = new ArrayList<>();
-        for (ChessMove move : possibleMoves) {
-            ChessBoard copy = new ChessBoard();
-            cloneBoard(board, copy);
-            copy.addPiece(move.getEndPosition(), board.getPiece(startPosition));
-            copy.addPiece(startPosition, null);
-            ChessGame trial = new ChessGame();
-            trial.setBoard(copy);
-            if (!trial.isInCheck(color)) {
-                legalMoves.add(move);
-            }
+        if (piece.getTeamColor() == team) {
+            return legalMoves().from(Bitboards.square(startPosition));
         }
-        return legalMoves;
+        return generatorFor(piece.getTeamColor()).legalMoves(Bitboards.square(startPosition));
+    }
+
+    /**
+     * Gets every legal move for a team, whether or not it is that team's turn
+     *
+     * @param teamColor the team to generate moves for
+     * @return all legal moves for the team's pieces
+     */
+    public Collection<ChessMove> allLegalMoves(TeamColor teamColor) {
+        return generatorFor(teamColor).allLegalMoves();
+    }
+
+    /**
+     * An en passant capture is only ever open to the side to move, so another
+     * team's generator is told there is none
+     */
+    private LegalMoveGenerator generatorFor(TeamColor teamColor) {
+        int enPassant = teamColor == team ? enPassantSquare : NO_SQUARE;
+        return new LegalMoveGenerator(board, teamColor, castlingRights, enPassant);
+    }
+
+    /**
+     * Gets the legal moves of the side to move. They are generated the first
+     * time they are asked for in a position and reused until a move changes
+     * the position key, so a caller that checks a move, then asks about check
+     * and mate, and then highlights a piece's moves generates them only once.
+     *
+     * @return the moves of the current position
+     */
+    public LegalMoves legalMoves() {
+        long key = positionKey();
+        LegalMoves cached = legalMoves;
+        if (cached == null || cached.key() != key) {
+            cached = new LegalMoves(this, key);
+            legalMoves = cached;
+        }
+        return cached;
+    }
+
+    /**
+     * Fills a move list with every legal move for the side to move, in packed
+     * form (see {@link Moves}). Reuses the list and this game's generator, so
+     * nothing is allocated; meant for code that walks the game tree.
+     *
+     * @param moves the list to fill; it is cleared first
+     */
+    public void generateLegalMoves(MoveList moves) {
+        if (generator == null) {
+            generator = new LegalMoveGenerator(board, team, castlingRights, enPassantSquare);
+        } else {
+            generator.reset(board, team, castlingRights, enPassantSquare);
+        }
+        moves.clear();
+        generator.generate(moves);
     }
 
     /**
@@ -150,77 +402,110 @@ public class ChessGame {
         if (legalMoves == null || !legalMoves.contains(move)) {
             throw new InvalidMoveException("Your move: " + move + " is not legal!");
         }
-        board.addPiece(move.getStartPosition(), null);
+        play(Moves.of(move, board));
+    }
 
-        if (move.getPromotionPiece() != null) {
-            board.addPiece(move.getEndPosition(), board.makePiece(move.getPromotionPiece(), piece.getTeamColor()));
-        } else {
-            board.addPiece(move.getEndPosition(), piece);
+    /**
+     * Makes a packed move after checking it against the legal moves of the
+     * side to move, for callers that have already generated them for this
+     * position and want to reuse them rather than have them generated again
+     *
+     * @param move  the move to play
+     * @param legal the list {@link #generateLegalMoves(MoveList)} filled for this position
+     * @throws InvalidMoveException if the move is not in the list
+     */
+    public void makeMove(int move, MoveList legal) throws InvalidMoveException {
+        if (!legal.contains(move)) {
+            throw new InvalidMoveException("Your move: " + Moves.toString(move) + " is not legal!");
         }
+        play(move);
+    }
 
-        team = team.other();
+    /**
+     * Determines if the given team is in check
+     *
+     * @param teamColor which team to check for check
+     * @return True if the specified team is in check
+     */
+    public boolean isInCheck(TeamColor teamColor) {
+        int kingSquare = board.kingSquare(teamColor);
+        return kingSquare >= 0 && board.isSquareAttacked(kingSquare, teamColor.other());
     }
 
-    private ChessPosition findKingPosition(TeamColor teamColor) {
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition position = new ChessPosition(row, col);
-                ChessPiece piece = board.getPiece(position);
-                if (piece != null && piece.getPieceType() == ChessPiece.PieceType.KING
-                        && piece.getTeamColor() == teamColor) {
-                    return position;
-                }
-            }
+    /**
+     * Plays a move in place without checking that it is legal, then passes the
+     * turn to the other team. Meant for code that walks the game tree (perft,
+     * search); every call must be paired with {@link #undoMove()}.
+     *
+     * @param move a move produced by {@link #allLegalMoves(TeamColor)}
+     */
+    public void doMove(ChessMove move) {
+        doMove(Moves.of(move, board));
+    }
+
+    /**
+     * Packed form of {@link #doMove(ChessMove)}
+     *
+     * @param move a move produced by {@link #generateLegalMoves(MoveList)}
+     */
+    public void doMove(int move) {
+        if (undoCount == undoStack.length) {
+            undoStack = Arrays.copyOf(undoStack, undoCount * 2);
         }
-        return null;
+        long state = ((long) castlingRights << 32) | ((long) (enPassantSquare + 1) << 36)
+                | ((long) (halfmoveClock & 0xFFFF) << 43);
+        undoStack[undoCount++] = state | (play(move) & 0xFFFFFFFFL);
     }
 
-    private boolean isSquareAttacked(ChessPosition position, TeamColor teamColor) {
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition startPosition = new ChessPosition(row, col);
-                ChessPiece piece = board.getPiece(startPosition);
-                if (piece == null) {
-                    continue;
-                }
-                if (piece.getTeamColor() != teamColor) {
-                    continue;
-                }
-                for (ChessMove move : piece.pieceMoves(board, startPosition)) {
-                    if (move.getEndPosition().equals(position)) {
-                        return true;
-                    }
-                }
-            }
+    /**
+     * Takes back the most recent {@link #doMove(ChessMove)} or {@link #doMove(int)}
+     */
+    public void undoMove() {
+        long undo = undoStack[--undoCount];
+        board.unmakeMove((int) undo);
+        castlingRights = (int) (undo >>> 32) & CastlingRights.ALL;
+        enPassantSquare = (int) ((undo >>> 36) & 0x7F) - 1;
+        halfmoveClock = (int) (undo >>> 43) & 0xFFFF;
+        historyCount--;
+        team = team.other();
+        if (team == TeamColor.BLACK) {
+            fullmoveNumber--;
         }
-        return false;
     }
 
     /**
-     * Determines if the given team is in check
+     * Plays a packed move and brings the rights, en passant square, clock,
+     * history and turn up to date
      *
-     * @param teamColor which team to check for check
-     * @return True if the specified team is in check
+     * @return the board's undo record
      */
-    public boolean isInCheck(TeamColor teamColor) {
-        ChessPosition kingPosition = findKingPosition(teamColor);
-        return isSquareAttacked(kingPosition, teamColor.other());
-    }
-
-    private boolean checkBoard(TeamColor teamColor) {
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition position = new ChessPosition(row, col);
-                ChessPiece piece = board.getPiece(position);
-                if (piece != null && piece.getTeamColor() == teamColor) {
-                    Collection<ChessMove> moves = validMoves(position);
-                    if (moves != null && !moves.isEmpty()) {
-                        return false;
-                    }
-                }
+    private int play(int move) {
+        if (historyCount == 0 && startFen == null) {
+            startFen = toFen();
+        }
+        if (historyCount == keyHistory.length) {
+            keyHistory = Arrays.copyOf(keyHistory, historyCount * 2);
+            moveHistory = Arrays.copyOf(moveHistory, historyCount * 2);
+        }
+        moveHistory[historyCount] = move;
+        keyHistory[historyCount++] = positionKey();
+        boolean pawnMove = ChessBoard.typeOf(board.pieceIndexAt(Moves.from(move))) == ChessPiece.PieceType.PAWN;
+        halfmoveClock = pawnMove || Moves.isCapture(move) ? 0 : halfmoveClock + 1;
+
+        int undo = board.makeMove(move);
+        castlingRights = CastlingRights.update(castlingRights, Moves.from(move), Moves.to(move));
+        enPassantSquare = NO_SQUARE;
+        if (Moves.flags(move) == Moves.DOUBLE_PUSH) {
+            int skipped = (Moves.from(move) + Moves.to(move)) >>> 1;
+            if (canCaptureOnto(skipped, team.other())) {
+                enPassantSquare = skipped;
             }
         }
-        return true;
+        if (team == TeamColor.BLACK) {
+            fullmoveNumber++;
+        }
+        team = team.other();
+        return undo;
     }
 
     /**
@@ -230,10 +515,7 @@ public class ChessGame {
      * @return True if the specified team is in checkmate
      */
     public boolean isInCheckmate(TeamColor teamColor) {
-        if (getTeamTurn() != teamColor || !isInCheck(teamColor)) {
-            return false;
-        }
-        return checkBoard(teamColor);
+        return getTeamTurn() == teamColor && legalMoves().isCheckmate();
     }
 
     /**
@@ -244,19 +526,24 @@ public class ChessGame {
      * @return True if the specified team is in stalemate, otherwise false
      */
     public boolean isInStalemate(TeamColor teamColor) {
-        if (getTeamTurn() != teamColor || isInCheck(teamColor)) {
-            return false;
-        }
-        return checkBoard(teamColor);
+        return getTeamTurn() == teamColor && legalMoves().isStalemate();
     }
 
     /**
-     * Sets this game's chessboard with a given board
+     * Sets this game's chessboard with a given board. Castling rights are
+     * inferred from where the kings and rooks stand, no en passant capture is
+     * available, and the move history starts over.
      *
      * @param board the new board to use
      */
     public void setBoard(ChessBoard board) {
         this.board = board;
+        this.castlingRights = CastlingRights.fromPlacement(board);
+        this.enPassantSquare = NO_SQUARE;
+        this.halfmoveClock = 0;
+        this.fullmoveNumber = 1;
+        this.historyCount = 0;
+        this.startFen = null;
     }
 
     /**
@@ -1,5 +1,11 @@
 package chess;
 
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
 import java.util.Collection;
 import java.util.Objects;
 
@@ -11,8 +17,23 @@ import static chess.ChessPiece.PieceType.*;
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
+@JsonAdapter(ChessPiece.GsonAdapter.class)
 public class ChessPiece {
 
+    /** One shared instance per colour/type, in {@link ChessBoard#pieceIndex} order */
+    private static final ChessPiece[] CANONICAL = new ChessPiece[12];
+
+    static {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            CANONICAL[color.ordinal() * 6 + KING.ordinal()] = new King(color);
+            CANONICAL[color.ordinal() * 6 + QUEEN.ordinal()] = new Queen(color);
+            CANONICAL[color.ordinal() * 6 + BISHOP.ordinal()] = new Bishop(color);
+            CANONICAL[color.ordinal() * 6 + KNIGHT.ordinal()] = new Knight(color);
+            CANONICAL[color.ordinal() * 6 + ROOK.ordinal()] = new Rook(color);
+            CANONICAL[color.ordinal() * 6 + PAWN.ordinal()] = new Pawn(color);
+        }
+    }
+
     private final ChessGame.TeamColor pieceColor;
     private final PieceType type;
 
@@ -21,6 +42,23 @@ public class ChessPiece {
         this.type = type;
     }
 
+    /**
+     * Pieces are immutable, so every piece of a colour and type can be the
+     * same object; use this instead of the constructor to avoid allocating
+     *
+     * @return the shared piece of the given colour and type
+     */
+    public static ChessPiece of(ChessGame.TeamColor color, PieceType type) {
+        return CANONICAL[color.ordinal() * 6 + type.ordinal()];
+    }
+
+    /**
+     * @return the shared piece for a bitboard slot (see {@link ChessBoard#pieceIndex})
+     */
+    static ChessPiece ofIndex(int index) {
+        return CANONICAL[index];
+    }
+
     /**
      * The various different chess piece options
      */
@@ -35,6 +73,9 @@ public class ChessPiece {
 
     @Override
     public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
         if (!(o instanceof ChessPiece)) {
             return false;
         }
@@ -107,4 +148,37 @@ public class ChessPiece {
     public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
         return new PieceMovesCalculator().pieceMoves(board, myPosition);
     }
+
+    /**
+     * Reads and writes pieces in the same JSON shape Gson's reflection would,
+     * but hands back the shared instances from {@link #of}
+     */
+    static class GsonAdapter extends TypeAdapter<ChessPiece> {
+        @Override
+        public void write(JsonWriter out, ChessPiece piece) throws IOException {
+            out.beginObject();
+            out.name("pieceColor").value(piece.pieceColor.name());
+            out.name("type").value(piece.type.name());
+            out.endObject();
+        }
+
+        @Override
+        public ChessPiece read(JsonReader in) throws IOException {
+            ChessGame.TeamColor color = null;
+            PieceType type = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "pieceColor" -> color = ChessGame.TeamColor.valueOf(in.nextString());
+                    case "type" -> type = PieceType.valueOf(in.nextString());
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            if (color == null || type == null) {
+                throw new IOException("Chess piece is missing its colour or type");
+            }
+            return of(color, type);
+        }
+    }
 }
\ No newline at end of file
@@ -1,5 +1,11 @@
 package chess;
 
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
 import java.util.Objects;
 
 /**
@@ -8,8 +14,18 @@ import java.util.Objects;
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
+@JsonAdapter(ChessPosition.GsonAdapter.class)
 public class ChessPosition {
 
+    /** One shared instance per square, indexed in {@link Bitboards} numbering */
+    private static final ChessPosition[] CANONICAL = new ChessPosition[64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            CANONICAL[square] = new ChessPosition(Bitboards.rowOf(square), Bitboards.columnOf(square));
+        }
+    }
+
     private final int row;
     private final int col;
 
@@ -18,6 +34,27 @@ public class ChessPosition {
         this.col = col;
     }
 
+    /**
+     * Positions are immutable, so every on-board position can be a shared
+     * object; use this instead of the constructor to avoid allocating.
+     * Off-board coordinates still get a new object so callers can validate them.
+     *
+     * @return the position at the given 1-based row and column
+     */
+    public static ChessPosition of(int row, int col) {
+        if (!Bitboards.isOnBoard(row, col)) {
+            return new ChessPosition(row, col);
+        }
+        return CANONICAL[Bitboards.square(row, col)];
+    }
+
+    /**
+     * @return the shared position for a square index
+     */
+    public static ChessPosition ofSquare(int square) {
+        return CANONICAL[square];
+    }
+
     @Override
     public String toString() {
         return toAlgebraic();
@@ -25,6 +62,9 @@ public class ChessPosition {
 
     @Override
     public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
         if (o == null || getClass() != o.getClass()) {
             return false;
         }
@@ -70,7 +110,37 @@ public class ChessPosition {
         if (col < 1 || col > 8 || row < 1 || row > 8) {
             throw new IllegalArgumentException("Algebraic coordinates out of bounds: " + algebraicString);
         }
-        return new ChessPosition(row, col);
+        return of(row, col);
+    }
+
+    /**
+     * Reads and writes positions in the same JSON shape Gson's reflection
+     * would, but hands back the shared instances from {@link #of}
+     */
+    static class GsonAdapter extends TypeAdapter<ChessPosition> {
+        @Override
+        public void write(JsonWriter out, ChessPosition position) throws IOException {
+            out.beginObject();
+            out.name("row").value(position.row);
+            out.name("col").value(position.col);
+            out.endObject();
+        }
+
+        @Override
+        public ChessPosition read(JsonReader in) throws IOException {
+            int row = 0;
+            int col = 0;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "row" -> row = in.nextInt();
+                    case "col" -> col = in.nextInt();
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return of(row, col);
+        }
     }
 
 }
\ No newline at end of file
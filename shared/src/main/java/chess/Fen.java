@@ -0,0 +1,212 @@
+package chess;
+
+import static chess.ChessGame.TeamColor.BLACK;
+import static chess.ChessGame.TeamColor.WHITE;
+
+/**
+ * Reads and writes Forsyth-Edwards Notation.
+ * <p>
+ * The parser walks the text once with a cursor, placing pieces as it goes,
+ * so it never splits the record into strings. The two clock fields may be
+ * left off, as many tools do.
+ */
+final class Fen {
+    private static final String PIECE_LETTERS = "kqbnrp";
+
+    private final CharSequence text;
+    private int cursor;
+
+    private Fen(CharSequence text) {
+        this.text = text;
+    }
+
+    static ChessGame parse(CharSequence text) {
+        return new Fen(text).parse();
+    }
+
+    private ChessGame parse() {
+        skipSpaces();
+        ChessBoard board = parsePlacement();
+        expectSpace();
+        ChessGame.TeamColor team = switch (next()) {
+            case 'w' -> WHITE;
+            case 'b' -> BLACK;
+            default -> throw error("side to move must be 'w' or 'b'");
+        };
+        ChessGame game = new ChessGame(board, team);
+        expectSpace();
+        game.setCastlingRights(parseCastling());
+        expectSpace();
+        int enPassant = parseEnPassant();
+        if (enPassant != ChessGame.NO_SQUARE && !enPassantFits(enPassant, team)) {
+            throw error("en passant square on the wrong rank");
+        }
+        game.setEnPassantSquare(enPassant);
+
+        skipSpaces();
+        if (cursor < text.length()) {
+            game.setHalfmoveClock(parseNumber());
+            skipSpaces();
+        }
+        if (cursor < text.length()) {
+            game.setFullmoveNumber(parseNumber());
+            skipSpaces();
+        }
+        if (cursor < text.length()) {
+            throw error("unexpected text after the record");
+        }
+        return game;
+    }
+
+    private ChessBoard parsePlacement() {
+        ChessBoard board = new ChessBoard();
+        int row = 8;
+        int col = 1;
+        while (true) {
+            char c = next();
+            if (c == '/') {
+                if (col != 9 || row == 1) {
+                    throw error("rank " + row + " does not have 8 squares");
+                }
+                row--;
+                col = 1;
+            } else if (c >= '1' && c <= '8') {
+                col += c - '0';
+            } else {
+                int type = PIECE_LETTERS.indexOf(Character.toLowerCase(c));
+                if (type < 0) {
+                    throw error("invalid piece '" + c + "'");
+                }
+                if (col > 8) {
+                    throw error("rank " + row + " has more than 8 squares");
+                }
+                ChessGame.TeamColor color = Character.isUpperCase(c) ? WHITE : BLACK;
+                board.addPiece(ChessPosition.of(row, col), ChessPiece.ofIndex(color.ordinal() * 6 + type));
+                col++;
+            }
+            if (col > 9) {
+                throw error("rank " + row + " has more than 8 squares");
+            }
+            if (cursor == text.length() || text.charAt(cursor) == ' ') {
+                break;
+            }
+        }
+        if (row != 1 || col != 9) {
+            throw error("the board must have 8 ranks of 8 squares");
+        }
+        return board;
+    }
+
+    private int parseCastling() {
+        if (peek() == '-') {
+            cursor++;
+            return CastlingRights.NONE;
+        }
+        int rights = CastlingRights.NONE;
+        while (cursor < text.length() && text.charAt(cursor) != ' ') {
+            rights |= switch (next()) {
+                case 'K' -> CastlingRights.WHITE_KINGSIDE;
+                case 'Q' -> CastlingRights.WHITE_QUEENSIDE;
+                case 'k' -> CastlingRights.BLACK_KINGSIDE;
+                case 'q' -> CastlingRights.BLACK_QUEENSIDE;
+                default -> throw error("invalid castling rights");
+            };
+        }
+        return rights;
+    }
+
+    private int parseEnPassant() {
+        char file = next();
+        if (file == '-') {
+            return ChessGame.NO_SQUARE;
+        }
+        char rank = next();
+        if (file < 'a' || file > 'h' || rank < '1' || rank > '8') {
+            throw error("invalid en passant square");
+        }
+        return Bitboards.square(rank - '0', file - 'a' + 1);
+    }
+
+    private static boolean enPassantFits(int square, ChessGame.TeamColor team) {
+        return Bitboards.rowOf(square) == (team == WHITE ? 6 : 3);
+    }
+
+    private int parseNumber() {
+        int start = cursor;
+        int value = 0;
+        while (cursor < text.length() && Character.isDigit(text.charAt(cursor))) {
+            value = value * 10 + (text.charAt(cursor++) - '0');
+        }
+        if (cursor == start) {
+            throw error("expected a number");
+        }
+        return value;
+    }
+
+    private char peek() {
+        if (cursor >= text.length()) {
+            throw error("record ends early");
+        }
+        return text.charAt(cursor);
+    }
+
+    private char next() {
+        char c = peek();
+        cursor++;
+        return c;
+    }
+
+    private void expectSpace() {
+        if (peek() != ' ') {
+            throw error("expected a space");
+        }
+        skipSpaces();
+    }
+
+    private void skipSpaces() {
+        while (cursor < text.length() && text.charAt(cursor) == ' ') {
+            cursor++;
+        }
+    }
+
+    private IllegalArgumentException error(String problem) {
+        return new IllegalArgumentException("Invalid FEN at column " + (cursor + 1) + ", " + problem + ": " + text);
+    }
+
+    static String format(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        StringBuilder fen = new StringBuilder(90);
+        for (int row = 8; row >= 1; row--) {
+            int empty = 0;
+            for (int col = 1; col <= 8; col++) {
+                int index = board.pieceIndexAt(Bitboards.square(row, col));
+                if (index == ChessBoard.NO_PIECE) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append((char) ('0' + empty));
+                    empty = 0;
+                }
+                char letter = PIECE_LETTERS.charAt(index % 6);
+                fen.append(index < 6 ? Character.toUpperCase(letter) : letter);
+            }
+            if (empty > 0) {
+                fen.append((char) ('0' + empty));
+            }
+            if (row > 1) {
+                fen.append('/');
+            }
+        }
+        fen.append(game.getTeamTurn() == WHITE ? " w " : " b ");
+        fen.append(CastlingRights.toString(game.getCastlingRights())).append(' ');
+        int enPassant = game.getEnPassantSquare();
+        if (enPassant == ChessGame.NO_SQUARE) {
+            fen.append('-');
+        } else {
+            fen.append((char) ('a' + Bitboards.columnOf(enPassant) - 1)).append(Bitboards.rowOf(enPassant));
+        }
+        return fen.append(' ').append(game.getHalfmoveClock())
+                .append(' ').append(game.getFullmoveNumber()).toString();
+    }
+}
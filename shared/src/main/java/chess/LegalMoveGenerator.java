@@ -0,0 +1,228 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static chess.ChessPiece.PieceType.*;
+
+/**
+ * Generates only legal moves for one team on one board.
+ * <p>
+ * The king's checkers, the check mask (squares that capture or block a
+ * single checker) and the set of pinned pieces are worked out once when
+ * the generator is created. Every other piece's targets are then cut down
+ * to the check mask, and a pinned piece is kept on the line through its
+ * king, so no move ever has to be tried on the board to see whether it
+ * leaves the king in check.
+ * <p>
+ * Castling and en passant depend on the game's history, so the game passes
+ * in its castling rights and en passant square. En passant is the one move
+ * whose legality is checked by looking at the board after it, since taking
+ * two pawns off one rank can expose the king along that rank.
+ */
+class LegalMoveGenerator {
+    private static final long ALL_SQUARES = ~Bitboards.EMPTY;
+
+    private ChessBoard board;
+    private ChessGame.TeamColor team;
+    private int castlingRights;
+    private int enPassantSquare;
+    private int kingSquare;
+    private long checkers;
+    private long checkMask;
+    private long pinned;
+
+    LegalMoveGenerator(ChessBoard board, ChessGame.TeamColor team) {
+        this(board, team, CastlingRights.NONE, ChessGame.NO_SQUARE);
+    }
+
+    LegalMoveGenerator(ChessBoard board, ChessGame.TeamColor team, int castlingRights, int enPassantSquare) {
+        reset(board, team, castlingRights, enPassantSquare);
+    }
+
+    /**
+     * Points the generator at a new position, so one generator can be reused
+     * for every node of a search without allocating
+     *
+     * @param enPassantSquare the square a pawn of this team may capture onto en
+     *                        passant, or {@link ChessGame#NO_SQUARE}
+     */
+    void reset(ChessBoard board, ChessGame.TeamColor team, int castlingRights, int enPassantSquare) {
+        this.board = board;
+        this.team = team;
+        this.castlingRights = castlingRights;
+        this.enPassantSquare = enPassantSquare;
+        this.kingSquare = board.kingSquare(team);
+
+        if (kingSquare < 0) {
+            // without a king nothing can be in check or pinned
+            this.checkers = Bitboards.EMPTY;
+            this.checkMask = ALL_SQUARES;
+            this.pinned = Bitboards.EMPTY;
+            return;
+        }
+
+        ChessGame.TeamColor enemy = team.other();
+        this.checkers = board.attackersTo(kingSquare, enemy, board.getOccupied());
+        if (checkers == 0) {
+            this.checkMask = ALL_SQUARES;
+        } else if (Bitboards.count(checkers) == 1) {
+            this.checkMask = checkers | AttackTables.between(kingSquare, Bitboards.first(checkers));
+        } else {
+            // double check: only the king may move
+            this.checkMask = Bitboards.EMPTY;
+        }
+        this.pinned = findPinned(enemy);
+    }
+
+    /**
+     * A piece is pinned when it is the only piece between its king and an enemy
+     * slider that would otherwise see the king
+     */
+    private long findPinned(ChessGame.TeamColor enemy) {
+        long enemyPieces = board.getTeamPieces(enemy);
+        long snipers = (AttackTables.rookAttacks(kingSquare, enemyPieces)
+                        & (board.getPieces(enemy, ROOK) | board.getPieces(enemy, QUEEN)))
+                | (AttackTables.bishopAttacks(kingSquare, enemyPieces)
+                        & (board.getPieces(enemy, BISHOP) | board.getPieces(enemy, QUEEN)));
+
+        long result = Bitboards.EMPTY;
+        long occupied = board.getOccupied();
+        for (; snipers != 0; snipers &= snipers - 1) {
+            long blockers = AttackTables.between(kingSquare, Bitboards.first(snipers)) & occupied;
+            if (Bitboards.count(blockers) == 1) {
+                result |= blockers & board.getTeamPieces(team);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return True if the team's king is currently attacked
+     */
+    boolean inCheck() {
+        return checkers != 0;
+    }
+
+    /**
+     * @param square a square holding one of this team's pieces
+     * @return the squares that piece may legally move to
+     */
+    long legalTargets(int square) {
+        ChessPiece.PieceType type = ChessBoard.typeOf(board.pieceIndexAt(square));
+        long targets = PieceMovesCalculator.targets(board, square, type, team);
+
+        if (type == KING) {
+            return kingTargets(targets) | castlingTargets(square);
+        }
+        targets &= checkMask;
+        if (Bitboards.contains(pinned, square)) {
+            targets &= AttackTables.line(kingSquare, square);
+        }
+        if (type == PAWN && enPassantSquare >= 0) {
+            targets |= enPassantTarget(square);
+        }
+        return targets;
+    }
+
+    /**
+     * The king may castle to a side it still has the right to when it is not
+     * in check, every square between king and rook is empty, and the squares
+     * the king crosses and lands on are not attacked
+     */
+    private long castlingTargets(int square) {
+        int rights = castlingRights & (CastlingRights.kingside(team) | CastlingRights.queenside(team));
+        int homeRank = team == ChessGame.TeamColor.WHITE ? 0 : 56;
+        if (rights == 0 || checkers != 0 || square != homeRank + 4) {
+            return Bitboards.EMPTY;
+        }
+        long occupied = board.getOccupied();
+        long rooks = board.getPieces(team, ROOK);
+        long result = Bitboards.EMPTY;
+        if ((rights & CastlingRights.kingside(team)) != 0
+                && Bitboards.contains(rooks, homeRank + 7)
+                && (AttackTables.between(square, homeRank + 7) & occupied) == 0
+                && isSafe(homeRank + 5, occupied) && isSafe(homeRank + 6, occupied)) {
+            result |= Bitboards.bit(homeRank + 6);
+        }
+        if ((rights & CastlingRights.queenside(team)) != 0
+                && Bitboards.contains(rooks, homeRank)
+                && (AttackTables.between(square, homeRank) & occupied) == 0
+                && isSafe(homeRank + 3, occupied) && isSafe(homeRank + 2, occupied)) {
+            result |= Bitboards.bit(homeRank + 2);
+        }
+        return result;
+    }
+
+    private boolean isSafe(int square, long occupied) {
+        return board.attackersTo(square, team.other(), occupied) == 0;
+    }
+
+    /**
+     * @return the en passant square if the pawn on {@code square} can legally capture onto it
+     */
+    private long enPassantTarget(int square) {
+        if (!Bitboards.contains(AttackTables.pawnAttacks(team, square), enPassantSquare)) {
+            return Bitboards.EMPTY;
+        }
+        if (kingSquare < 0) {
+            return Bitboards.bit(enPassantSquare);
+        }
+        int victim = team == ChessGame.TeamColor.WHITE ? enPassantSquare - 8 : enPassantSquare + 8;
+        long occupied = (board.getOccupied() & ~Bitboards.bit(square) & ~Bitboards.bit(victim))
+                | Bitboards.bit(enPassantSquare);
+        // the captured pawn stops attacking, everything else is seen through the new occupancy
+        long attackers = board.attackersTo(kingSquare, team.other(), occupied) & ~Bitboards.bit(victim);
+        return attackers == 0 ? Bitboards.bit(enPassantSquare) : Bitboards.EMPTY;
+    }
+
+    private long kingTargets(long targets) {
+        // look through the king's own square so it cannot step back along a checking ray
+        long occupied = board.getOccupied() & ~Bitboards.bit(kingSquare);
+        long safe = Bitboards.EMPTY;
+        for (long remaining = targets; remaining != 0; remaining &= remaining - 1) {
+            int target = Bitboards.first(remaining);
+            if (board.attackersTo(target, team.other(), occupied) == 0) {
+                safe |= Bitboards.bit(target);
+            }
+        }
+        return safe;
+    }
+
+    /**
+     * @return every legal move for the piece on the given square
+     */
+    Collection<ChessMove> legalMoves(int square) {
+        List<ChessMove> moves = new ArrayList<>();
+        addLegalMoves(moves, square);
+        return moves;
+    }
+
+    /**
+     * @return every legal move for the team
+     */
+    Collection<ChessMove> allLegalMoves() {
+        List<ChessMove> moves = new ArrayList<>();
+        for (long pieces = board.getTeamPieces(team); pieces != 0; pieces &= pieces - 1) {
+            addLegalMoves(moves, Bitboards.first(pieces));
+        }
+        return moves;
+    }
+
+    /**
+     * Adds every legal move for the team to a move list in packed form
+     */
+    void generate(MoveList moves) {
+        for (long pieces = board.getTeamPieces(team); pieces != 0; pieces &= pieces - 1) {
+            int square = Bitboards.first(pieces);
+            ChessPiece.PieceType type = ChessBoard.typeOf(board.pieceIndexAt(square));
+            PieceMovesCalculator.addMoves(moves, board, square, legalTargets(square), type, team);
+        }
+    }
+
+    private void addLegalMoves(List<ChessMove> moves, int square) {
+        ChessPiece.PieceType type = ChessBoard.typeOf(board.pieceIndexAt(square));
+        PieceMovesCalculator.addMoves(moves, square, legalTargets(square), type, team);
+    }
+}
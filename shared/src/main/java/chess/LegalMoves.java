@@ -0,0 +1,90 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The legal moves of the side to move in one position, generated once and
+ * then read as often as needed: to check a move, to tell check, mate and
+ * stalemate apart, and to list the moves of a single piece.
+ * <p>
+ * A snapshot never changes after it is made, so it can be kept and shared
+ * between threads: {@link #moves()} hands out a copy, and {@link #size()}
+ * and {@link #get(int)} read the moves without one. {@link #key()} says which
+ * position it belongs to.
+ */
+public final class LegalMoves {
+    private final long key;
+    private final ChessGame.TeamColor team;
+    private final boolean check;
+    private final MoveList moves = new MoveList();
+
+    LegalMoves(ChessGame game, long key) {
+        this.key = key;
+        this.team = game.getTeamTurn();
+        this.check = game.isInCheck(team);
+        game.generateLegalMoves(moves);
+    }
+
+    /**
+     * @return the position key of the game when this snapshot was made
+     */
+    public long key() {
+        return key;
+    }
+
+    public ChessGame.TeamColor team() {
+        return team;
+    }
+
+    /**
+     * @return a copy of the moves in packed form, which the caller may change
+     */
+    public MoveList moves() {
+        MoveList copy = new MoveList();
+        copy.addAll(moves);
+        return copy;
+    }
+
+    public int size() {
+        return moves.size();
+    }
+
+    /**
+     * @return the packed move at an index below {@link #size()}
+     */
+    public int get(int index) {
+        return moves.get(index);
+    }
+
+    public boolean contains(int move) {
+        return moves.contains(move);
+    }
+
+    public boolean isCheck() {
+        return check;
+    }
+
+    public boolean isCheckmate() {
+        return check && moves.isEmpty();
+    }
+
+    public boolean isStalemate() {
+        return !check && moves.isEmpty();
+    }
+
+    /**
+     * @param square the square the moves start from
+     * @return the legal moves of the piece on that square
+     */
+    public Collection<ChessMove> from(int square) {
+        List<ChessMove> piecesMoves = new ArrayList<>();
+        for (int i = 0; i < moves.size(); i++) {
+            if (Moves.from(moves.get(i)) == square) {
+                piecesMoves.add(Moves.toChessMove(moves.get(i)));
+            }
+        }
+        return piecesMoves;
+    }
+}
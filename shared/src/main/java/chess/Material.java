@@ -0,0 +1,103 @@
+package chess;
+
+/**
+ * Material signatures: a count of each kind of piece on the board, packed 4
+ * bits per kind into one long.
+ * <p>
+ * Kings are left out since there is always one of each. Bishops are counted
+ * by the colour of their square, because two bishops on the same colour can
+ * never mate. Adding or removing a piece adds or subtracts one constant, so
+ * the board keeps the signature up to date as moves are made (see
+ * {@link ChessBoard#getMaterialKey()}), and whether the material left can
+ * ever give mate is a single table lookup.
+ */
+public final class Material {
+    private static final int WHITE_DARK_BISHOP = 12;
+    private static final int BLACK_DARK_BISHOP = 13;
+
+    /** Queens, rooks and pawns: any of these and mate is still possible */
+    private static final long MATING_MATERIAL = nibble(1) | nibble(4) | nibble(5)
+            | nibble(7) | nibble(10) | nibble(11);
+
+    /**
+     * Indexed by the minor piece counts, capped at 3 and packed 2 bits each:
+     * white light bishops, white dark bishops, white knights, then the same for black
+     */
+    private static final boolean[] DEAD = new boolean[1 << 12];
+
+    private static final long DARK_SQUARES = 0xAA55AA55AA55AA55L;
+
+    static {
+        for (int index = 0; index < DEAD.length; index++) {
+            int lightBishops = (index & 3) + ((index >>> 6) & 3);
+            int darkBishops = ((index >>> 2) & 3) + ((index >>> 8) & 3);
+            int knights = ((index >>> 4) & 3) + ((index >>> 10) & 3);
+            boolean bishopsOnOneColour = lightBishops == 0 || darkBishops == 0;
+            DEAD[index] = (knights == 0 && bishopsOnOneColour)
+                    || (knights == 1 && lightBishops == 0 && darkBishops == 0);
+        }
+    }
+
+    private Material() {
+    }
+
+    private static long nibble(int slot) {
+        return 0xFL << (slot * 4);
+    }
+
+    /**
+     * @param index  the piece's bitboard slot (see {@link ChessBoard#pieceIndex})
+     * @param square the square the piece stands on
+     * @return the amount the signature changes by when that piece is added
+     */
+    static long delta(int index, int square) {
+        int type = index % 6;
+        if (type == ChessPiece.PieceType.KING.ordinal()) {
+            return 0;
+        }
+        int slot = index;
+        if (type == ChessPiece.PieceType.BISHOP.ordinal() && Bitboards.contains(DARK_SQUARES, square)) {
+            slot = index < 6 ? WHITE_DARK_BISHOP : BLACK_DARK_BISHOP;
+        }
+        return 1L << (slot * 4);
+    }
+
+    /**
+     * @return the number of pieces of one kind in a signature, counting
+     * bishops on both colours together
+     */
+    public static int count(long signature, ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        if (type == ChessPiece.PieceType.KING) {
+            return 1;
+        }
+        int count = slot(signature, ChessBoard.pieceIndex(color, type));
+        if (type == ChessPiece.PieceType.BISHOP) {
+            count += slot(signature, color == ChessGame.TeamColor.WHITE ? WHITE_DARK_BISHOP : BLACK_DARK_BISHOP);
+        }
+        return count;
+    }
+
+    /**
+     * Checks for material neither side can ever mate with: bare kings, a
+     * single minor piece, or any number of bishops that all stand on the same
+     * colour
+     *
+     * @return True if the game is drawn whatever either side plays
+     */
+    public static boolean isInsufficient(long signature) {
+        if ((signature & MATING_MATERIAL) != 0) {
+            return false;
+        }
+        int index = capped(signature, 2) | capped(signature, WHITE_DARK_BISHOP) << 2 | capped(signature, 3) << 4
+                | capped(signature, 8) << 6 | capped(signature, BLACK_DARK_BISHOP) << 8 | capped(signature, 9) << 10;
+        return DEAD[index];
+    }
+
+    private static int slot(long signature, int slot) {
+        return (int) (signature >>> (slot * 4)) & 0xF;
+    }
+
+    private static int capped(long signature, int slot) {
+        return Math.min(slot(signature, slot), 3);
+    }
+}
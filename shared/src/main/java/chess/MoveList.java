@@ -0,0 +1,68 @@
+package chess;
+
+/**
+ * A reusable list of packed moves (see {@link Moves}) backed by an int array.
+ * Clearing and refilling a list allocates nothing, so move generation into
+ * one is free of garbage.
+ */
+public final class MoveList {
+    /** No legal chess position has more than 218 moves */
+    public static final int CAPACITY = 256;
+
+    private final int[] moves = new int[CAPACITY];
+    private int size;
+
+    /**
+     * @throws IllegalStateException if the list already holds {@link #CAPACITY}
+     * moves, which only a broken position or generator can cause
+     */
+    public void add(int move) {
+        if (size == CAPACITY) {
+            throw new IllegalStateException("Move list is full at " + CAPACITY + " moves, adding "
+                    + Moves.toString(move));
+        }
+        moves[size++] = move;
+    }
+
+    /**
+     * Appends every move of another list
+     */
+    public void addAll(MoveList other) {
+        if (size + other.size > CAPACITY) {
+            throw new IllegalStateException("Move list would hold more than " + CAPACITY + " moves");
+        }
+        System.arraycopy(other.moves, 0, moves, size, other.size);
+        size += other.size;
+    }
+
+    public int get(int index) {
+        return moves[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public void swap(int first, int second) {
+        int move = moves[first];
+        moves[first] = moves[second];
+        moves[second] = move;
+    }
+
+    public boolean contains(int move) {
+        for (int i = 0; i < size; i++) {
+            if (moves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
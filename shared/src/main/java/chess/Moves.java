@@ -0,0 +1,124 @@
+package chess;
+
+/**
+ * Packs a move into the low 16 bits of an int so move lists, killer tables
+ * and hash entries can hold moves without allocating a {@link ChessMove}.
+ * <p>
+ * Bits 0-5 hold the start square, bits 6-11 the end square (see
+ * {@link Bitboards} for the numbering) and bits 12-15 the flags below.
+ * Promotions set {@link #PROMOTION} plus the promoted piece in the low two
+ * flag bits, and a capturing promotion also sets {@link #CAPTURE}.
+ * Flags are filled in by the move generator; {@link #of(ChessMove, ChessBoard)}
+ * works them out for a move that came from elsewhere.
+ */
+public final class Moves {
+    /** Not a move; a1 to a1 can never be generated */
+    public static final int NONE = 0;
+
+    public static final int QUIET = 0;
+    public static final int DOUBLE_PUSH = 1;
+    public static final int KING_CASTLE = 2;
+    public static final int QUEEN_CASTLE = 3;
+    public static final int CAPTURE = 4;
+    public static final int EN_PASSANT = CAPTURE | 1;
+    public static final int PROMOTION = 8;
+
+    private static final ChessPiece.PieceType[] PROMOTION_TYPES = {
+            ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.BISHOP,
+            ChessPiece.PieceType.ROOK, ChessPiece.PieceType.QUEEN
+    };
+
+    private Moves() {
+    }
+
+    public static int encode(int from, int to, int flags) {
+        return from | (to << 6) | (flags << 12);
+    }
+
+    public static int from(int move) {
+        return move & 0x3F;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 0x3F;
+    }
+
+    public static int flags(int move) {
+        return (move >>> 12) & 0xF;
+    }
+
+    public static boolean isCapture(int move) {
+        return (flags(move) & CAPTURE) != 0;
+    }
+
+    public static boolean isPromotion(int move) {
+        return (flags(move) & PROMOTION) != 0;
+    }
+
+    /**
+     * @return the piece a pawn promotes to, or null if the move is not a promotion
+     */
+    public static ChessPiece.PieceType promotion(int move) {
+        return isPromotion(move) ? PROMOTION_TYPES[flags(move) & 3] : null;
+    }
+
+    /**
+     * @return the flags for promoting to the given piece, without the capture bit
+     */
+    public static int promotionFlags(ChessPiece.PieceType type) {
+        return switch (type) {
+            case KNIGHT -> PROMOTION;
+            case BISHOP -> PROMOTION | 1;
+            case ROOK -> PROMOTION | 2;
+            case QUEEN -> PROMOTION | 3;
+            default -> throw new IllegalArgumentException("Cannot promote to " + type);
+        };
+    }
+
+    /**
+     * @return the boxed form of a packed move
+     */
+    public static ChessMove toChessMove(int move) {
+        return new ChessMove(ChessPosition.ofSquare(from(move)), ChessPosition.ofSquare(to(move)), promotion(move));
+    }
+
+    /**
+     * Packs a move, reading the board it is about to be played on for the flags
+     */
+    public static int of(ChessMove move, ChessBoard board) {
+        int from = Bitboards.square(move.getStartPosition());
+        int to = Bitboards.square(move.getEndPosition());
+        int flags = board.pieceIndexAt(to) != ChessBoard.NO_PIECE ? CAPTURE : QUIET;
+        int moved = board.pieceIndexAt(from);
+        ChessPiece.PieceType type = moved == ChessBoard.NO_PIECE ? null : ChessBoard.typeOf(moved);
+        if (move.getPromotionPiece() != null) {
+            flags |= promotionFlags(move.getPromotionPiece());
+        } else if (type == ChessPiece.PieceType.PAWN && Math.abs(to - from) == 16) {
+            flags = DOUBLE_PUSH;
+        } else if (type == ChessPiece.PieceType.PAWN && flags == QUIET && (from & 7) != (to & 7)) {
+            // a pawn only moves diagonally onto an empty square when capturing en passant
+            flags = EN_PASSANT;
+        } else if (type == ChessPiece.PieceType.KING && Math.abs(to - from) == 2) {
+            flags = to > from ? KING_CASTLE : QUEEN_CASTLE;
+        }
+        return encode(from, to, flags);
+    }
+
+    /**
+     * @return the move in coordinate form, such as "e2e4" or "a7a8q"
+     */
+    public static String toString(int move) {
+        StringBuilder text = new StringBuilder(5)
+                .append(square(from(move)))
+                .append(square(to(move)));
+        ChessPiece.PieceType promotion = promotion(move);
+        if (promotion != null) {
+            text.append("kqbnrp".charAt(promotion.ordinal()));
+        }
+        return text.toString();
+    }
+
+    private static String square(int square) {
+        return "" + (char) ('a' + (square & 7)) + (char) ('1' + (square >>> 3));
+    }
+}
@@ -13,190 +13,116 @@ public class PieceMovesCalculator {
     private static final List<ChessPiece.PieceType> PROMOTION_OPTIONS =
             List.of(ROOK, KNIGHT, BISHOP, QUEEN);
 
-    private static final int[][] PAWN_MOVE_OFFSET = {
-            {1, 1}, {1, -1}
-    };
-
-    private static final int[][] ROOK_DIRECTION = {
-            {1, 0}, {-1, 0}, {0, 1}, {0, -1}
-    };
-
-    private static final int[][] BISHOP_DIRECTION = {
-            {1, 1}, {1, -1}, {-1, 1}, {-1, -1}
-    };
-
-    private static final int[][] QUEEN_DIRECTION = {
-            {1, 1}, {1, -1}, {-1, 1}, {-1, -1},
-            {1, 0}, {-1, 0}, {0, 1}, {0, -1}
-    };
-
-    private static final int[][] KING_DIRECTION = {
-            {1, 1}, {1, -1}, {-1, 1}, {-1, -1},
-            {1, 0}, {-1, 0}, {0, 1}, {0, -1}
-    };
-
-    private static final int[][] KNIGHT_DIRECTION = {
-            {2, 1}, {2, -1}, {-2, 1}, {-2, -1},
-            {1, 2}, {-1, 2}, {1, -2}, {-1, -2}
-    };
-
     public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition position) {
         ChessPiece piece = board.getPiece(position);
         if (piece == null) {
             return Collections.emptyList();
         }
-        return switch (piece.getPieceType()) {
-            case PAWN -> calculatePawnMoves(board, position);
-            case ROOK -> calculateRookMoves(board, position);
-            case KNIGHT -> calculateKnightMoves(board, position);
-            case BISHOP -> calculateBishopMoves(board, position);
-            case QUEEN -> calculateQueenMoves(board, position);
-            case KING -> calculateKingMoves(board, position);
-        };
-    }
-
-    private boolean isEmpty(ChessBoard board, int row, int col) {
-        // if on the board & if there is no piece on the desired end square
-        return row >= 1 && row <= 8 && col >= 1 && col <= 8 &&
-                board.getPiece(new ChessPosition(row, col)) == null;
-    }
-
-    private boolean isEnemy(ChessBoard board, ChessPosition position, int row, int col) {
-        if (row < 1 || row > 8 || col < 1 || col > 8) {
-            return false;
-        }
-        ChessPiece piece = board.getPiece(position);
-        ChessPiece enemy = board.getPiece(new ChessPosition(row, col));
-        return (enemy != null && piece.getTeamColor() != enemy.getTeamColor());
-    }
+        int square = Bitboards.square(position);
+        long targets = targets(board, square, piece.getPieceType(), piece.getTeamColor());
 
-    private Collection<ChessMove> helpSlidingPieces(ChessBoard board, ChessPosition position,
-                                                    int[][] directions) {
         List<ChessMove> moves = new ArrayList<>();
-
-        for (var direction : directions) {
-            int rowDirection = direction[0];
-            int colDirection = direction[1];
-            int row = position.getRow() + rowDirection;
-            int col = position.getColumn() + colDirection;
-            while (row >= 1 && row <= 8 && col >= 1 && col <= 8) {
-                if (isEmpty(board, row, col)) {
-                    moves.add(new ChessMove(position, new ChessPosition(row, col), null));
-                } else {
-                    if (isEnemy(board, position, row, col)) {
-                        moves.add(new ChessMove(position, new ChessPosition(row, col), null));
-                    }
-                    break;
-                }
-                row += rowDirection;
-                col += colDirection;
-            }
-        }
+        addMoves(moves, square, targets, piece.getPieceType(), piece.getTeamColor());
         return moves;
     }
 
-    private Collection<ChessMove> calculateRookMoves(ChessBoard board, ChessPosition position) {
-        return helpSlidingPieces(board, position, ROOK_DIRECTION);
-    }
-
-    private Collection<ChessMove> calculateBishopMoves(ChessBoard board, ChessPosition position) {
-        return helpSlidingPieces(board, position, BISHOP_DIRECTION);
-    }
-
-    private Collection<ChessMove> calculateQueenMoves(ChessBoard board, ChessPosition position) {
-        return helpSlidingPieces(board, position, QUEEN_DIRECTION);
+    /**
+     * Calculates the squares a piece could move to, ignoring whether the move
+     * would leave its own king in danger
+     *
+     * @return the target squares as a bitboard
+     */
+    static long targets(ChessBoard board, int square, ChessPiece.PieceType type, ChessGame.TeamColor color) {
+        long occupied = board.getOccupied();
+        long targets = switch (type) {
+            case PAWN -> calculatePawnTargets(board, square, color);
+            case ROOK -> AttackTables.rookAttacks(square, occupied);
+            case KNIGHT -> AttackTables.knightAttacks(square);
+            case BISHOP -> AttackTables.bishopAttacks(square, occupied);
+            case QUEEN -> AttackTables.queenAttacks(square, occupied);
+            case KING -> AttackTables.kingAttacks(square);
+        };
+        return targets & ~board.getTeamPieces(color);
     }
 
-    private Collection<ChessMove> helpKingKnightMoves(ChessBoard board, ChessPosition position,
-                                                      int[][] directions) {
-        List<ChessMove> moves = new ArrayList<>();
-
-        for (var direction : directions) {
-            int row = position.getRow() + direction[0];
-            int col = position.getColumn() + direction[1];
-            if (isEmpty(board, row, col)) {
-                moves.add(new ChessMove(position, new ChessPosition(row, col), null));
-            } else {
-                if (isEnemy(board, position, row, col)) {
-                    moves.add(new ChessMove(position, new ChessPosition(row, col), null));
+    /**
+     * Adds one move per target square, expanding pawn moves onto the last rank
+     * into each promotion option
+     */
+    static void addMoves(Collection<ChessMove> moves, int square, long targets,
+                         ChessPiece.PieceType type, ChessGame.TeamColor color) {
+        ChessPosition start = ChessPosition.ofSquare(square);
+        long promotionRank = color == WHITE ? Bitboards.RANK_8 : Bitboards.RANK_1;
+        for (long remaining = targets; remaining != 0; remaining &= remaining - 1) {
+            int target = Bitboards.first(remaining);
+            ChessPosition end = ChessPosition.ofSquare(target);
+            if (type == PAWN && Bitboards.contains(promotionRank, target)) {
+                for (ChessPiece.PieceType promotedPiece : PROMOTION_OPTIONS) {
+                    moves.add(new ChessMove(start, end, promotedPiece));
                 }
+            } else {
+                moves.add(new ChessMove(start, end, null));
             }
         }
-
-        return moves;
-    }
-
-    private Collection<ChessMove> calculateKnightMoves(ChessBoard board, ChessPosition position) {
-        return helpKingKnightMoves(board, position, KNIGHT_DIRECTION);
-    }
-
-    private Collection<ChessMove> calculateKingMoves(ChessBoard board, ChessPosition position) {
-        return helpKingKnightMoves(board, position, KING_DIRECTION);
     }
 
-    private void helpPawnMoves(ChessBoard board, List<ChessMove> moves, ChessPosition position, int rowDirection,
-                               int colDirection, ChessPiece.PieceType promotedPiece) {
-        int row = position.getRow() + rowDirection;
-        int col = position.getColumn() + colDirection;
-        if (colDirection == 0) {
-            if (isEmpty(board, row, col)) {
-                moves.add(new ChessMove(position, new ChessPosition(row, col), promotedPiece));
-            }
-        } else {
-            if (isEnemy(board, position, row, col)) {
-                moves.add(new ChessMove(position, new ChessPosition(row, col), promotedPiece));
+    /**
+     * Packed form of {@link #addMoves(Collection, int, long, ChessPiece.PieceType, ChessGame.TeamColor)}
+     * that sets the move flags. A king target two files away is a castle and a
+     * diagonal pawn target with nothing on it is an en passant capture.
+     */
+    static void addMoves(MoveList moves, ChessBoard board, int square, long targets,
+                         ChessPiece.PieceType type, ChessGame.TeamColor color) {
+        long enemies = board.getTeamPieces(color.other());
+        if (type != PAWN) {
+            for (long remaining = targets; remaining != 0; remaining &= remaining - 1) {
+                int target = Bitboards.first(remaining);
+                int flags = Bitboards.contains(enemies, target) ? Moves.CAPTURE : Moves.QUIET;
+                if (type == KING && Math.abs(target - square) == 2) {
+                    flags = target > square ? Moves.KING_CASTLE : Moves.QUEEN_CASTLE;
+                }
+                moves.add(Moves.encode(square, target, flags));
             }
+            return;
         }
-    }
-
-    private void checkForPromotion(ChessBoard board, List<ChessMove> moves, ChessPosition position, int rowDirection, int colDirection) {
-        for (ChessPiece.PieceType promotedPiece : PROMOTION_OPTIONS) {
-            helpPawnMoves(board, moves, position, rowDirection, colDirection, promotedPiece);
-        }
-    }
-
-    private Collection<ChessMove> calculatePawnMoves(ChessBoard board, ChessPosition position) {
-        List<ChessMove> moves = new ArrayList<>();
-        ChessPiece pawn = board.getPiece(position);
-
-        int forward = pawn.getTeamColor() == WHITE ? 1 : -1;
-        int promotionRow = pawn.getTeamColor() == WHITE ? 8 : 1;
-        int oneRow = position.getRow() + forward;
-        // 1 space forward
-        if (oneRow >= 1 && oneRow <= 8) {
-            if (oneRow == promotionRow) {
-                if (isEmpty(board, oneRow, position.getColumn())) {
-                    checkForPromotion(board, moves, position, forward, 0);
+        long promotionRank = color == WHITE ? Bitboards.RANK_8 : Bitboards.RANK_1;
+        for (long remaining = targets; remaining != 0; remaining &= remaining - 1) {
+            int target = Bitboards.first(remaining);
+            int flags = Bitboards.contains(enemies, target) ? Moves.CAPTURE : Moves.QUIET;
+            if (Bitboards.contains(promotionRank, target)) {
+                for (ChessPiece.PieceType promotedPiece : PROMOTION_OPTIONS) {
+                    moves.add(Moves.encode(square, target, flags | Moves.promotionFlags(promotedPiece)));
                 }
             } else {
-                helpPawnMoves(board, moves, position, forward, 0, null);
+                if (Math.abs(target - square) == 16) {
+                    flags = Moves.DOUBLE_PUSH;
+                } else if (flags == Moves.QUIET && (target & 7) != (square & 7)) {
+                    flags = Moves.EN_PASSANT;
+                }
+                moves.add(Moves.encode(square, target, flags));
             }
         }
+    }
 
-        // 2 space forward
-        int homeRank = pawn.getTeamColor() == WHITE ? 2 : 7;
-        if (position.getRow() == homeRank) {
-            int midRow = position.getRow() + forward;
-            int col = position.getColumn();
-            int endRow = position.getRow() + 2*forward;
-            if (isEmpty(board, midRow, col) && isEmpty(board, endRow, col)) {
-                helpPawnMoves(board, moves, position, forward*2, 0, null);
-            }
+    private static long calculatePawnTargets(ChessBoard board, int square, ChessGame.TeamColor color) {
+        long empty = ~board.getOccupied();
+        long pawn = Bitboards.bit(square);
+
+        // 1 space forward, then 2 from the home rank if both squares are empty
+        long single;
+        long twoStep;
+        if (color == WHITE) {
+            single = (pawn << 8) & empty;
+            twoStep = ((single & (Bitboards.RANK_2 << 8)) << 8) & empty;
+        } else {
+            single = (pawn >>> 8) & empty;
+            twoStep = ((single & (Bitboards.RANK_7 >>> 8)) >>> 8) & empty;
         }
 
         // diagonal captures
-        for (var offset : PAWN_MOVE_OFFSET) {
-            int rowDirection = forward * offset[0];
-            int colDirection = offset[1];
-            int endRow = position.getRow() + rowDirection;
-            if (endRow == promotionRow) {
-                checkForPromotion(board, moves, position, rowDirection, colDirection);
-            } else {
-                helpPawnMoves(board, moves, position, rowDirection, colDirection, null);
-            }
-        }
+        long captures = AttackTables.pawnAttacks(color, square) & board.getTeamPieces(color.other());
 
-        return moves;
+        return single | twoStep | captures;
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,142 @@
+package chess;
+
+/**
+ * Midgame and endgame values for every piece on every square, with the
+ * piece's material value already added in. Scores are in centipawns from the
+ * piece owner's point of view.
+ * <p>
+ * The tables below are written as a board seen from white's side, rank 8 on
+ * the top line, and mirrored for black. The board keeps running sums of
+ * these values as pieces move (see {@link ChessBoard#getMidgameScore()}), so
+ * the evaluation never has to walk the pieces.
+ */
+public final class PieceSquareTables {
+    /** Game phase at the start; a queen counts 4, a rook 2 and a minor piece 1 */
+    public static final int MAX_PHASE = 24;
+
+    /** Phase weight indexed by {@link ChessPiece.PieceType} ordinal */
+    private static final int[] PHASE_WEIGHTS = { 0, 4, 1, 1, 2, 0 };
+
+    // KING, QUEEN, BISHOP, KNIGHT, ROOK, PAWN
+    private static final int[] MIDGAME_VALUES = { 0, 1025, 365, 337, 477, 82 };
+    private static final int[] ENDGAME_VALUES = { 0, 936, 297, 281, 512, 94 };
+
+    private static final int[] KING_MIDGAME = {
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -20, -30, -30, -40, -40, -30, -30, -20,
+            -10, -20, -20, -20, -20, -20, -20, -10,
+             20,  20,   0,   0,   0,   0,  20,  20,
+             20,  30,  10,   0,   0,  10,  30,  20,
+    };
+    private static final int[] KING_ENDGAME = {
+            -50, -40, -30, -20, -20, -30, -40, -50,
+            -30, -20, -10,   0,   0, -10, -20, -30,
+            -30, -10,  20,  30,  30,  20, -10, -30,
+            -30, -10,  30,  40,  40,  30, -10, -30,
+            -30, -10,  30,  40,  40,  30, -10, -30,
+            -30, -10,  20,  30,  30,  20, -10, -30,
+            -30, -30,   0,   0,   0,   0, -30, -30,
+            -50, -30, -30, -30, -30, -30, -30, -50,
+    };
+    private static final int[] QUEEN = {
+            -20, -10, -10,  -5,  -5, -10, -10, -20,
+            -10,   0,   0,   0,   0,   0,   0, -10,
+            -10,   0,   5,   5,   5,   5,   0, -10,
+             -5,   0,   5,   5,   5,   5,   0,  -5,
+              0,   0,   5,   5,   5,   5,   0,  -5,
+            -10,   5,   5,   5,   5,   5,   0, -10,
+            -10,   0,   5,   0,   0,   0,   0, -10,
+            -20, -10, -10,  -5,  -5, -10, -10, -20,
+    };
+    private static final int[] BISHOP = {
+            -20, -10, -10, -10, -10, -10, -10, -20,
+            -10,   0,   0,   0,   0,   0,   0, -10,
+            -10,   0,   5,  10,  10,   5,   0, -10,
+            -10,   5,   5,  10,  10,   5,   5, -10,
+            -10,   0,  10,  10,  10,  10,   0, -10,
+            -10,  10,  10,  10,  10,  10,  10, -10,
+            -10,   5,   0,   0,   0,   0,   5, -10,
+            -20, -10, -10, -10, -10, -10, -10, -20,
+    };
+    private static final int[] KNIGHT = {
+            -50, -40, -30, -30, -30, -30, -40, -50,
+            -40, -20,   0,   0,   0,   0, -20, -40,
+            -30,   0,  10,  15,  15,  10,   0, -30,
+            -30,   5,  15,  20,  20,  15,   5, -30,
+            -30,   0,  15,  20,  20,  15,   0, -30,
+            -30,   5,  10,  15,  15,  10,   5, -30,
+            -40, -20,   0,   5,   5,   0, -20, -40,
+            -50, -40, -30, -30, -30, -30, -40, -50,
+    };
+    private static final int[] ROOK = {
+              0,   0,   0,   0,   0,   0,   0,   0,
+              5,  10,  10,  10,  10,  10,  10,   5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+              0,   0,   0,   5,   5,   0,   0,   0,
+    };
+    private static final int[] PAWN_MIDGAME = {
+              0,   0,   0,   0,   0,   0,   0,   0,
+             50,  50,  50,  50,  50,  50,  50,  50,
+             10,  10,  20,  30,  30,  20,  10,  10,
+              5,   5,  10,  25,  25,  10,   5,   5,
+              0,   0,   0,  20,  20,   0,   0,   0,
+              5,  -5, -10,   0,   0, -10,  -5,   5,
+              5,  10,  10, -20, -20,  10,  10,   5,
+              0,   0,   0,   0,   0,   0,   0,   0,
+    };
+    private static final int[] PAWN_ENDGAME = {
+              0,   0,   0,   0,   0,   0,   0,   0,
+             70,  70,  70,  70,  70,  70,  70,  70,
+             45,  45,  45,  45,  45,  45,  45,  45,
+             25,  25,  25,  25,  25,  25,  25,  25,
+             10,  10,  10,  10,  10,  10,  10,  10,
+              5,   5,   5,   5,   5,   5,   5,   5,
+              0,   0,   0,   0,   0,   0,   0,   0,
+              0,   0,   0,   0,   0,   0,   0,   0,
+    };
+
+    private static final int[][] MIDGAME = new int[12][64];
+    private static final int[][] ENDGAME = new int[12][64];
+
+    static {
+        int[][] midgameTables = { KING_MIDGAME, QUEEN, BISHOP, KNIGHT, ROOK, PAWN_MIDGAME };
+        int[][] endgameTables = { KING_ENDGAME, QUEEN, BISHOP, KNIGHT, ROOK, PAWN_ENDGAME };
+        for (int type = 0; type < 6; type++) {
+            for (int square = 0; square < 64; square++) {
+                // the tables list rank 8 first, so white reads them upside down and black reads them as written
+                int whiteEntry = (7 - (square >>> 3)) * 8 + (square & 7);
+                int blackEntry = square;
+                MIDGAME[type][square] = MIDGAME_VALUES[type] + midgameTables[type][whiteEntry];
+                ENDGAME[type][square] = ENDGAME_VALUES[type] + endgameTables[type][whiteEntry];
+                MIDGAME[type + 6][square] = MIDGAME_VALUES[type] + midgameTables[type][blackEntry];
+                ENDGAME[type + 6][square] = ENDGAME_VALUES[type] + endgameTables[type][blackEntry];
+            }
+        }
+    }
+
+    private PieceSquareTables() {
+    }
+
+    /**
+     * @param index  the piece's bitboard slot (see {@link ChessBoard#pieceIndex})
+     * @param square the square index
+     */
+    public static int midgame(int index, int square) {
+        return MIDGAME[index][square];
+    }
+
+    public static int endgame(int index, int square) {
+        return ENDGAME[index][square];
+    }
+
+    public static int phaseWeight(int index) {
+        return PHASE_WEIGHTS[index % 6];
+    }
+}
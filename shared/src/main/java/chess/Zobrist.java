@@ -0,0 +1,69 @@
+package chess;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random 64-bit keys for Zobrist hashing.
+ * <p>
+ * A position's key is the XOR of one key per (piece, square) pair on the
+ * board, plus keys for the side to move, the castling rights and the
+ * en passant file. Making a move only has to XOR out what changed and XOR
+ * in what replaced it. The keys come from a fixed seed so the client and
+ * server always agree on them.
+ */
+public final class Zobrist {
+    private static final long SEED = 0x43484553534B4559L;
+
+    private static final long[][] PIECE_SQUARE = new long[12][64];
+    private static final long[] CASTLING = new long[16];
+    private static final long[] EN_PASSANT_FILE = new long[8];
+    private static final long SIDE;
+
+    static {
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (long[] squares : PIECE_SQUARE) {
+            for (int square = 0; square < 64; square++) {
+                squares[square] = random.nextLong();
+            }
+        }
+        for (int rights = 0; rights < CASTLING.length; rights++) {
+            CASTLING[rights] = random.nextLong();
+        }
+        for (int file = 0; file < EN_PASSANT_FILE.length; file++) {
+            EN_PASSANT_FILE[file] = random.nextLong();
+        }
+        SIDE = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * @param index  the piece's bitboard slot (see {@link ChessBoard#pieceIndex})
+     * @param square the square index
+     */
+    public static long piece(int index, int square) {
+        return PIECE_SQUARE[index][square];
+    }
+
+    /**
+     * @return the key mixed in when black is to move
+     */
+    public static long side() {
+        return SIDE;
+    }
+
+    /**
+     * @param rights the 4-bit castling rights mask
+     */
+    public static long castling(int rights) {
+        return CASTLING[rights];
+    }
+
+    /**
+     * @param file the 0-based file of the en passant target square
+     */
+    public static long enPassant(int file) {
+        return EN_PASSANT_FILE[file];
+    }
+}
@@ -0,0 +1,52 @@
+package chess.analysis;
+
+import chess.ChessGame;
+import chess.perft.Perft;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+/**
+ * Analyses many positions at once, for jobs like auditing every stored game
+ * or scanning a batch of positions for mates. Positions are spread across a
+ * {@link ForkJoinPool} and each one is worked on a private copy, so the
+ * caller's games are never touched.
+ */
+public class BulkAnalyzer {
+    private final ForkJoinPool pool;
+    private final int perftDepth;
+
+    /**
+     * @param pool       the pool the analysis runs on
+     * @param perftDepth how deep to count nodes below each position, or 0 to skip perft
+     */
+    public BulkAnalyzer(ForkJoinPool pool, int perftDepth) {
+        this.pool = pool;
+        this.perftDepth = perftDepth;
+    }
+
+    public BulkAnalyzer() {
+        this(ForkJoinPool.commonPool(), 0);
+    }
+
+    /**
+     * @return one report per position, in the order the stream supplied them
+     */
+    public List<PositionReport> analyze(Stream<ChessGame> positions) {
+        return pool.submit(() -> positions.parallel().map(this::analyze).toList()).join();
+    }
+
+    /**
+     * @return the report for a single position
+     */
+    public PositionReport analyze(ChessGame position) {
+        ChessGame game = position.copy();
+        ChessGame.TeamColor team = game.getTeamTurn();
+        int legalMoves = game.allLegalMoves(team).size();
+        boolean inCheck = game.isInCheck(team);
+        long nodes = perftDepth > 0 ? new Perft().perft(game, perftDepth) : -1;
+        return new PositionReport(game.positionKey(), team, legalMoves, inCheck,
+                inCheck && legalMoves == 0, !inCheck && legalMoves == 0, nodes);
+    }
+}
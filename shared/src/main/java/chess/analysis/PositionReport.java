@@ -0,0 +1,18 @@
+package chess.analysis;
+
+import chess.ChessGame;
+
+/**
+ * The result of analysing one position
+ *
+ * @param positionKey the position's Zobrist key
+ * @param sideToMove  the team whose turn it is
+ * @param legalMoves  the number of legal moves for the side to move
+ * @param inCheck     whether the side to move is in check
+ * @param checkmate   whether the side to move is checkmated
+ * @param stalemate   whether the side to move is stalemated
+ * @param perftNodes  the perft count at the analyser's depth, or -1 when not requested
+ */
+public record PositionReport(long positionKey, ChessGame.TeamColor sideToMove, int legalMoves,
+                             boolean inCheck, boolean checkmate, boolean stalemate, long perftNodes) {
+}
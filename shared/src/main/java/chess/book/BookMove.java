@@ -0,0 +1,10 @@
+package chess.book;
+
+/**
+ * One move an opening book suggests for a position
+ *
+ * @param move   the packed move (see {@link chess.Moves})
+ * @param weight how strongly the book recommends it, relative to the other moves
+ */
+public record BookMove(int move, int weight) {
+}
@@ -0,0 +1,129 @@
+package chess.book;
+
+import chess.ChessGame;
+import chess.notation.PgnGame;
+import chess.notation.PgnReader;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects weighted moves, usually from the opening of many games, and
+ * writes them as an {@link OpeningBook} file.
+ * <p>
+ * A move played more than once from the same position adds up its weight.
+ * Weights are scaled down per position when they would not fit in 16 bits.
+ */
+public final class BookWriter {
+    private static final int MAX_WEIGHT = 0xFFFF;
+
+    /** Position key to Polyglot move to total weight */
+    private final Map<Long, Map<Integer, Long>> positions = new HashMap<>();
+
+    /**
+     * Adds weight to a move from the game's current position
+     *
+     * @param move a legal packed move for the side to move
+     */
+    public void add(ChessGame game, int move, int weight) {
+        positions.computeIfAbsent(game.positionKey(), key -> new HashMap<>())
+                .merge(OpeningBook.encode(move), (long) weight, Long::sum);
+    }
+
+    /**
+     * Adds the first moves of a game, each weighted by how the game ended for
+     * the side that played it: 2 for a win, 1 for a draw or an unfinished
+     * game, and nothing for a loss
+     *
+     * @param plies how many half moves from the start to add
+     */
+    public void addGame(PgnGame pgn, int plies) {
+        ChessGame replay = ChessGame.fromFen(pgn.game().getStartFen());
+        int[] moves = pgn.game().getMoveHistory();
+        for (int i = 0; i < Math.min(plies, moves.length); i++) {
+            int weight = weightFor(pgn.result(), replay.getTeamTurn());
+            if (weight > 0) {
+                add(replay, moves[i], weight);
+            }
+            replay.doMove(moves[i]);
+        }
+    }
+
+    private static int weightFor(String result, ChessGame.TeamColor mover) {
+        return switch (result) {
+            case "1-0" -> mover == ChessGame.TeamColor.WHITE ? 2 : 0;
+            case "0-1" -> mover == ChessGame.TeamColor.BLACK ? 2 : 0;
+            default -> 1;
+        };
+    }
+
+    /**
+     * @return the number of records the book will have
+     */
+    public int size() {
+        int size = 0;
+        for (Map<Integer, Long> moves : positions.values()) {
+            size += moves.size();
+        }
+        return size;
+    }
+
+    /**
+     * Writes the book sorted by key, heaviest move first within a position
+     */
+    public void write(Path file) throws IOException {
+        List<Long> keys = new ArrayList<>(positions.keySet());
+        keys.sort(Long::compareUnsigned);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            for (long key : keys) {
+                List<Map.Entry<Integer, Long>> moves = new ArrayList<>(positions.get(key).entrySet());
+                moves.sort(Map.Entry.<Integer, Long>comparingByValue().reversed());
+                long heaviest = moves.getFirst().getValue();
+                long divisor = (heaviest + MAX_WEIGHT - 1) / MAX_WEIGHT;
+                for (Map.Entry<Integer, Long> move : moves) {
+                    out.writeLong(key);
+                    out.writeShort(move.getKey());
+                    // keep rare moves in the book even when scaling rounds them down
+                    out.writeShort((int) Math.max(1, move.getValue() / divisor));
+                    out.writeInt(0);
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds a book from the openings of the games in a PGN file
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: BookWriter <games.pgn> <book.bin> [plies]");
+            return;
+        }
+        int plies = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+        BookWriter writer = new BookWriter();
+        try (PgnReader reader = PgnReader.open(Path.of(args[0]))) {
+            while (true) {
+                PgnGame game;
+                try {
+                    game = reader.next();
+                } catch (IllegalArgumentException e) {
+                    System.out.println(e.getMessage());
+                    continue;
+                }
+                if (game == null) {
+                    break;
+                }
+                writer.addGame(game, plies);
+            }
+            writer.write(Path.of(args[1]));
+            System.out.printf("%,d games, %,d book entries%n", reader.gamesRead(), writer.size());
+        }
+    }
+}
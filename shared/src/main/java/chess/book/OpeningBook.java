@@ -0,0 +1,198 @@
+package chess.book;
+
+import chess.ChessGame;
+import chess.MoveList;
+import chess.Moves;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * An opening book read straight from a memory-mapped file.
+ * <p>
+ * The file uses the Polyglot layout: 16-byte big-endian records of a 64-bit
+ * position key, a 16-bit move, a 16-bit weight and 32 unused "learn" bits,
+ * sorted by key as an unsigned number. Keys are this project's
+ * {@link ChessGame#positionKey()} rather than Polyglot's own, so books are
+ * made with {@link BookWriter}.
+ * <p>
+ * Opening a book only maps the file: nothing is parsed or copied onto the
+ * heap, and a lookup is a binary search over the records in place. The
+ * operating system shares the mapped pages between every process on the host
+ * that opens the same file. Lookups only use absolute reads, so one book can
+ * be used by many threads at once.
+ */
+public final class OpeningBook implements Closeable {
+    static final int ENTRY_SIZE = 16;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer entries;
+    private final int count;
+
+    private OpeningBook(FileChannel channel, MappedByteBuffer entries) {
+        this.channel = channel;
+        this.entries = entries;
+        this.count = entries.capacity() / ENTRY_SIZE;
+    }
+
+    /**
+     * @throws IOException if the file cannot be read or is not a whole number of records
+     */
+    public static OpeningBook open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size % ENTRY_SIZE != 0 || size > Integer.MAX_VALUE) {
+                throw new IOException("Not an opening book (" + size + " bytes): " + file);
+            }
+            MappedByteBuffer entries = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            entries.order(ByteOrder.BIG_ENDIAN);
+            return new OpeningBook(channel, entries);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the number of records in the book
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Looks up the book moves for the side to move, heaviest first. Moves
+     * that are not legal in the position, which can only come from a damaged
+     * book or a key collision, are left out.
+     *
+     * @return the moves, or an empty list if the position is not in the book
+     */
+    public List<BookMove> moves(ChessGame game) {
+        List<BookMove> moves = new ArrayList<>();
+        long key = game.positionKey();
+        int first = firstEntry(key);
+        if (first < 0) {
+            return moves;
+        }
+        MoveList legal = new MoveList();
+        game.generateLegalMoves(legal);
+        for (int i = first; i < count && keyAt(i) == key; i++) {
+            int move = decode(moveAt(i), legal);
+            int weight = weightAt(i);
+            if (move != Moves.NONE && weight > 0) {
+                moves.add(new BookMove(move, weight));
+            }
+        }
+        moves.sort(Comparator.comparingInt(BookMove::weight).reversed());
+        return moves;
+    }
+
+    /**
+     * Picks a book move at random, each with a chance in proportion to its
+     * weight, so a bot does not play the same opening every game
+     *
+     * @return the packed move, or {@link Moves#NONE} if the position is not in the book
+     */
+    public int pick(ChessGame game, RandomGenerator random) {
+        List<BookMove> moves = moves(game);
+        int total = 0;
+        for (BookMove move : moves) {
+            total += move.weight();
+        }
+        if (total == 0) {
+            return Moves.NONE;
+        }
+        int roll = random.nextInt(total);
+        for (BookMove move : moves) {
+            roll -= move.weight();
+            if (roll < 0) {
+                return move.move();
+            }
+        }
+        return Moves.NONE;
+    }
+
+    /**
+     * @return the index of the first record with the key, or -1 if there is none
+     */
+    private int firstEntry(long key) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (Long.compareUnsigned(keyAt(middle), key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low < count && keyAt(low) == key ? low : -1;
+    }
+
+    private long keyAt(int index) {
+        return entries.getLong(index * ENTRY_SIZE);
+    }
+
+    private int moveAt(int index) {
+        return entries.getShort(index * ENTRY_SIZE + 8) & 0xFFFF;
+    }
+
+    private int weightAt(int index) {
+        return entries.getShort(index * ENTRY_SIZE + 10) & 0xFFFF;
+    }
+
+    /**
+     * Writes a packed move in Polyglot's 16 bits: the target square in bits
+     * 0-5, the start square in bits 6-11 and the promotion piece (1 knight
+     * to 4 queen) in bits 12-14. Castling is written as the king taking its
+     * own rook.
+     */
+    static int encode(int move) {
+        int from = Moves.from(move);
+        int to = Moves.to(move);
+        if (Moves.flags(move) == Moves.KING_CASTLE) {
+            to = from + 3;
+        } else if (Moves.flags(move) == Moves.QUEEN_CASTLE) {
+            to = from - 4;
+        }
+        int promotion = 0;
+        if (Moves.isPromotion(move)) {
+            promotion = switch (Moves.promotion(move)) {
+                case KNIGHT -> 1;
+                case BISHOP -> 2;
+                case ROOK -> 3;
+                default -> 4;
+            };
+        }
+        return to | (from << 6) | (promotion << 12);
+    }
+
+    /**
+     * Finds the legal move that a Polyglot move stands for
+     *
+     * @return the packed move, or {@link Moves#NONE} if no legal move matches
+     */
+    static int decode(int bookMove, MoveList legal) {
+        for (int i = 0; i < legal.size(); i++) {
+            if (encode(legal.get(i)) == bookMove) {
+                return legal.get(i);
+            }
+        }
+        return Moves.NONE;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
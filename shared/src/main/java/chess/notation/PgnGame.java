@@ -0,0 +1,17 @@
+package chess.notation;
+
+import chess.ChessGame;
+
+import java.util.Map;
+
+/**
+ * One game read from, or written to, a PGN file
+ *
+ * @param tags   the tag pairs in file order, such as "White" and "Result"
+ * @param game   the game after its last move; {@link ChessGame#getMoveHistory()}
+ *               and {@link ChessGame#getStartFen()} give the moves and where they
+ *               start from
+ * @param result "1-0", "0-1", "1/2-1/2" or "*"
+ */
+public record PgnGame(Map<String, String> tags, ChessGame game, String result) {
+}
@@ -0,0 +1,447 @@
+package chess.notation;
+
+import chess.ChessGame;
+import chess.MoveList;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reads games one at a time from a PGN file of any size.
+ * <p>
+ * Input is pulled through a fixed 64 KB buffer, from either an
+ * {@link InputStream} or a file mapped into memory a window at a time, so
+ * memory use does not grow with the file. Each move token is copied into a
+ * small reused array and decoded straight into a move on the game, so
+ * reading allocates nothing per move. Comments, variations, NAGs and
+ * annotation marks are skipped.
+ * <p>
+ * A game with a bad tag or an illegal move makes {@link #next()} throw an
+ * {@link IllegalArgumentException}; the reader has already skipped the rest
+ * of its tags and movetext by then, so the caller can log the error and
+ * carry on.
+ */
+public final class PgnReader implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MAX_TOKEN = 32;
+    private static final long MAP_WINDOW = 1L << 28;
+    private static final String[] RESULTS = {"1-0", "0-1", "1/2-1/2", "*"};
+
+    private final Source source;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private int previous = '\n';
+
+    private final Token token = new Token();
+    private byte[] text = new byte[64];
+    private final MoveList legal = new MoveList();
+    private long gamesRead;
+
+    public PgnReader(InputStream in) {
+        this(new StreamSource(in));
+    }
+
+    private PgnReader(Source source) {
+        this.source = source;
+    }
+
+    /**
+     * Opens a PGN file through memory mapping, which avoids copying it
+     * through the operating system's read calls
+     */
+    public static PgnReader open(Path file) throws IOException {
+        return new PgnReader(new MappedSource(FileChannel.open(file, StandardOpenOption.READ)));
+    }
+
+    /**
+     * @return the next game, or null at the end of the input
+     * @throws IllegalArgumentException if the game is malformed; the reader
+     *                                  stays usable for the games after it
+     */
+    public PgnGame next() throws IOException {
+        skipSpace();
+        if (peek() < 0) {
+            return null;
+        }
+        gamesRead++;
+        Map<String, String> tags = new LinkedHashMap<>();
+        while (peek() == '[') {
+            readTag(tags);
+            skipSpace();
+        }
+
+        ChessGame game;
+        try {
+            String fen = tags.get("FEN");
+            game = fen != null ? ChessGame.fromFen(fen) : new ChessGame();
+        } catch (IllegalArgumentException e) {
+            skipGame();
+            throw error(e.getMessage());
+        }
+        String result = readMoves(game);
+        return new PgnGame(tags, game, result);
+    }
+
+    /**
+     * @return how many games have been started, including ones that failed
+     */
+    public long gamesRead() {
+        return gamesRead;
+    }
+
+    private void readTag(Map<String, String> tags) throws IOException {
+        read();
+        skipSpace();
+        StringBuilder name = new StringBuilder();
+        while (isTagNameChar(peek())) {
+            name.append((char) read());
+        }
+        skipSpace();
+        if (read() != '"') {
+            skipTags();
+            skipGame();
+            throw error("tag " + name + " has no quoted value");
+        }
+        int length = 0;
+        for (int c = read(); c != '"'; c = read()) {
+            if (c < 0 || c == '\n') {
+                skipTags();
+                skipGame();
+                throw error("tag " + name + " is not closed");
+            }
+            if (c == '\\') {
+                c = read();
+            }
+            if (length == text.length) {
+                text = Arrays.copyOf(text, length * 2);
+            }
+            text[length++] = (byte) c;
+        }
+        for (int c = read(); c != ']' && c != '\n' && c >= 0; c = read()) {
+            // tolerate junk before the closing bracket
+        }
+        tags.put(name.toString(), new String(text, 0, length, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Plays the movetext onto the game
+     *
+     * @param game the game to play onto, or null to skip the moves
+     * @return the game termination marker
+     */
+    private String readMoves(ChessGame game) throws IOException {
+        int depth = 0;
+        while (true) {
+            skipSpace();
+            int c = peek();
+            if (c < 0 || (c == '[' && depth == 0)) {
+                return "*";
+            }
+            switch (c) {
+                case '{' -> skipPast('}');
+                case ';' -> skipPast('\n');
+                case '(' -> {
+                    read();
+                    depth++;
+                }
+                case ')' -> {
+                    read();
+                    depth = Math.max(0, depth - 1);
+                }
+                case '$' -> {
+                    read();
+                    while (Character.isDigit(peek())) {
+                        read();
+                    }
+                }
+                default -> {
+                    readToken();
+                    String result = resultOf(token);
+                    if (result != null) {
+                        if (depth == 0) {
+                            return result;
+                        }
+                    } else if (depth == 0 && game != null) {
+                        playToken(game);
+                    }
+                }
+            }
+        }
+    }
+
+    private void playToken(ChessGame game) throws IOException {
+        // drop a move number glued to the move, as in "12.e4" or "12...Nf6"
+        int start = 0;
+        while (start < token.length && Character.isDigit(token.bytes[start])) {
+            start++;
+        }
+        if (start < token.length && token.bytes[start] == '.') {
+            while (start < token.length && token.bytes[start] == '.') {
+                start++;
+            }
+        } else {
+            start = 0;
+        }
+        token.start = start;
+        if (token.length() == 0 || isAnnotation(token)) {
+            return;
+        }
+        if (token.tooLong) {
+            skipGame();
+            throw error("move token is too long");
+        }
+
+        game.generateLegalMoves(legal);
+        int move;
+        try {
+            move = San.parse(token, game, legal);
+        } catch (IllegalArgumentException e) {
+            String message = e.getMessage() + " after " + game.getMoveHistory().length + " plies";
+            skipGame();
+            throw error(message);
+        }
+        game.doMove(move);
+    }
+
+    private void readToken() throws IOException {
+        token.start = 0;
+        token.length = 0;
+        token.tooLong = false;
+        for (int c = peek(); c >= 0 && !isDelimiter(c); c = peek()) {
+            read();
+            if (token.length == MAX_TOKEN) {
+                token.tooLong = true;
+            } else {
+                token.bytes[token.length++] = (byte) c;
+            }
+        }
+    }
+
+    private static String resultOf(Token token) {
+        for (String result : RESULTS) {
+            if (result.contentEquals(token)) {
+                return result;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isAnnotation(Token token) {
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (c != '!' && c != '?') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDelimiter(int c) {
+        return Character.isWhitespace(c) || c == '{' || c == '(' || c == ')' || c == ';' || c == '[' || c == '$';
+    }
+
+    private static boolean isTagNameChar(int c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    /**
+     * Skips whitespace and "%" escape lines
+     */
+    private void skipSpace() throws IOException {
+        for (int c = peek(); c >= 0; c = peek()) {
+            if (c == '%' && previous == '\n') {
+                skipPast('\n');
+            } else if (Character.isWhitespace(c)) {
+                read();
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void skipPast(int end) throws IOException {
+        for (int c = read(); c >= 0 && c != end; c = read()) {
+            // skip
+        }
+    }
+
+    /**
+     * Skips the rest of a tag section after a bad tag: the rest of its line
+     * and every tag line after it
+     */
+    private void skipTags() throws IOException {
+        if (previous != '\n') {
+            skipPast('\n');
+        }
+        for (skipSpace(); peek() == '['; skipSpace()) {
+            skipPast('\n');
+        }
+    }
+
+    /**
+     * Skips the rest of a bad game's movetext, ending where a good game's
+     * would: after its result, or before the next tag section if it has none
+     */
+    private void skipGame() throws IOException {
+        readMoves(null);
+    }
+
+    private IllegalArgumentException error(String problem) {
+        return new IllegalArgumentException("PGN game " + gamesRead + ": " + problem);
+    }
+
+    private int peek() throws IOException {
+        while (position == limit) {
+            int count = source.read(buffer, 0, buffer.length);
+            if (count < 0) {
+                return -1;
+            }
+            position = 0;
+            limit = count;
+        }
+        return buffer[position] & 0xFF;
+    }
+
+    private int read() throws IOException {
+        int c = peek();
+        if (c >= 0) {
+            position++;
+            previous = c;
+        }
+        return c;
+    }
+
+    @Override
+    public void close() throws IOException {
+        source.close();
+    }
+
+    /**
+     * The current move token, read in place as text
+     */
+    private static final class Token implements CharSequence {
+        private final byte[] bytes = new byte[MAX_TOKEN];
+        private int start;
+        private int length;
+        private boolean tooLong;
+
+        @Override
+        public int length() {
+            return length - start;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) bytes[start + index];
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            return toString().substring(from, to);
+        }
+
+        @Override
+        public String toString() {
+            return new String(bytes, start, length(), StandardCharsets.US_ASCII);
+        }
+    }
+
+    private interface Source extends Closeable {
+        /**
+         * @return the number of bytes read, or -1 at the end of the input
+         */
+        int read(byte[] into, int offset, int length) throws IOException;
+    }
+
+    private record StreamSource(InputStream in) implements Source {
+        @Override
+        public int read(byte[] into, int offset, int length) throws IOException {
+            return in.read(into, offset, length);
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * Maps the file a window at a time, since one mapping cannot pass 2 GB
+     */
+    private static final class MappedSource implements Source {
+        private final FileChannel channel;
+        private final long size;
+        private long mappedUpTo;
+        private MappedByteBuffer window;
+
+        MappedSource(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+        }
+
+        @Override
+        public int read(byte[] into, int offset, int length) throws IOException {
+            if (window == null || !window.hasRemaining()) {
+                if (mappedUpTo >= size) {
+                    return -1;
+                }
+                long windowSize = Math.min(MAP_WINDOW, size - mappedUpTo);
+                window = channel.map(FileChannel.MapMode.READ_ONLY, mappedUpTo, windowSize);
+                mappedUpTo += windowSize;
+            }
+            int count = Math.min(length, window.remaining());
+            window.get(into, offset, count);
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /**
+     * Reads every game in a PGN file and reports the import rate
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage: PgnReader <file.pgn>");
+            return;
+        }
+        long games = 0;
+        long plies = 0;
+        long errors = 0;
+        long start = System.nanoTime();
+        try (PgnReader reader = open(Path.of(args[0]))) {
+            while (true) {
+                PgnGame game;
+                try {
+                    game = reader.next();
+                } catch (IllegalArgumentException e) {
+                    System.out.println(e.getMessage());
+                    errors++;
+                    continue;
+                }
+                if (game == null) {
+                    break;
+                }
+                games++;
+                plies += game.game().getMoveHistory().length;
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long gamesPerSecond = seconds > 0 ? (long) (games / seconds) : games;
+        System.out.printf("%,d games (%,d plies, %,d errors) in %.3f s (%,d games/s)%n",
+                games, plies, errors, seconds, gamesPerSecond);
+    }
+}
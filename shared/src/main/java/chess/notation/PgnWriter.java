@@ -0,0 +1,124 @@
+package chess.notation;
+
+import chess.ChessGame;
+import chess.MoveList;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes games as PGN, one after another, to any {@link Appendable}.
+ * <p>
+ * The seven standard tags always come first, filled with "?" where the
+ * game does not say, and a game that did not start from the initial position
+ * gets SetUp and FEN tags. Moves are written in SAN, wrapped to 79 columns.
+ */
+public final class PgnWriter {
+    private static final int LINE_WIDTH = 79;
+    private static final List<String> SEVEN_TAG_ROSTER =
+            List.of("Event", "Site", "Date", "Round", "White", "Black", "Result");
+    private static final String START_FEN = new ChessGame().toFen();
+
+    private final Appendable out;
+    private final MoveList legal = new MoveList();
+    private final StringBuilder line = new StringBuilder(LINE_WIDTH + 16);
+
+    public PgnWriter(Appendable out) {
+        this.out = out;
+    }
+
+    /**
+     * Writes a game whose result is worked out from its final position
+     *
+     * @see #resultOf(ChessGame)
+     */
+    public void write(Map<String, String> tags, ChessGame game) throws IOException {
+        write(new PgnGame(tags, game, resultOf(game)));
+    }
+
+    public void write(PgnGame pgn) throws IOException {
+        Map<String, String> tags = pgn.tags();
+        String startFen = pgn.game().getStartFen();
+        for (String name : SEVEN_TAG_ROSTER) {
+            String value = name.equals("Result") ? pgn.result() : tags.get(name);
+            if (value == null) {
+                value = name.equals("Date") ? "????.??.??" : "?";
+            }
+            writeTag(name, value);
+        }
+        for (Map.Entry<String, String> tag : tags.entrySet()) {
+            String name = tag.getKey();
+            if (!SEVEN_TAG_ROSTER.contains(name) && !name.equals("SetUp") && !name.equals("FEN")) {
+                writeTag(name, tag.getValue());
+            }
+        }
+        if (!startFen.equals(START_FEN)) {
+            writeTag("SetUp", "1");
+            writeTag("FEN", startFen);
+        }
+        out.append('\n');
+
+        ChessGame replay = ChessGame.fromFen(startFen);
+        line.setLength(0);
+        boolean first = true;
+        replay.generateLegalMoves(legal);
+        for (int move : pgn.game().getMoveHistory()) {
+            if (replay.getTeamTurn() == ChessGame.TeamColor.WHITE) {
+                appendToken(replay.getFullmoveNumber() + ".");
+            } else if (first) {
+                appendToken(replay.getFullmoveNumber() + "...");
+            }
+            first = false;
+            // the moves after this one give the mate suffix and disambiguate the next move
+            StringBuilder san = new StringBuilder(8);
+            San.appendMove(san, replay.getBoard(), move, legal);
+            replay.doMove(move);
+            replay.generateLegalMoves(legal);
+            if (replay.isInCheck(replay.getTeamTurn())) {
+                san.append(legal.isEmpty() ? '#' : '+');
+            }
+            appendToken(san.toString());
+        }
+        appendToken(pgn.result());
+        out.append(line).append("\n\n");
+    }
+
+    private void writeTag(String name, String value) throws IOException {
+        out.append('[').append(name).append(" \"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\');
+            }
+            out.append(c);
+        }
+        out.append("\"]\n");
+    }
+
+    private void appendToken(String token) throws IOException {
+        if (!line.isEmpty() && line.length() + 1 + token.length() > LINE_WIDTH) {
+            out.append(line).append('\n');
+            line.setLength(0);
+        }
+        if (!line.isEmpty()) {
+            line.append(' ');
+        }
+        line.append(token);
+    }
+
+    /**
+     * @return "1-0" or "0-1" for a win, "1/2-1/2" for a game that ended
+     * without a winner, and "*" for a game still going
+     */
+    public static String resultOf(ChessGame game) {
+        ChessGame.TeamColor winner = game.getWinner();
+        if (winner == null && game.isInCheckmate(game.getTeamTurn())) {
+            winner = game.getTeamTurn().other();
+        }
+        if (winner != null) {
+            return winner == ChessGame.TeamColor.WHITE ? "1-0" : "0-1";
+        }
+        return game.isGameOver() ? "1/2-1/2" : "*";
+    }
+}
@@ -0,0 +1,254 @@
+package chess.notation;
+
+import chess.Bitboards;
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.MoveList;
+import chess.Moves;
+
+/**
+ * Standard Algebraic Notation, such as "Nbd7", "exd5", "e8=Q+" or "O-O".
+ * <p>
+ * Both directions work from the legal move list of the position, so the
+ * caller generates it once and can reuse it for other work on the same
+ * position.
+ */
+public final class San {
+    /** Letters indexed by {@link ChessPiece.PieceType} ordinal */
+    private static final String PIECE_LETTERS = "KQBNRP";
+
+    private San() {
+    }
+
+    /**
+     * Finds the legal move a SAN token names. Check, mate and annotation
+     * suffixes ("+", "#", "!", "?") are ignored, and castling may be written
+     * with zeros.
+     *
+     * @param san   the move text
+     * @param game  the position the move is played from
+     * @param legal the legal moves of the side to move in that position
+     * @return the packed move
+     * @throws IllegalArgumentException if no legal move, or more than one, matches
+     */
+    public static int parse(CharSequence san, ChessGame game, MoveList legal) {
+        int end = san.length();
+        while (end > 0 && isSuffix(san.charAt(end - 1))) {
+            end--;
+        }
+        if (end >= 3 && (san.charAt(0) == 'O' || san.charAt(0) == '0')) {
+            return parseCastle(san, end, legal);
+        }
+
+        int start = 0;
+        int type = ChessPiece.PieceType.PAWN.ordinal();
+        if (end > 0 && isPieceLetter(san.charAt(0))) {
+            type = PIECE_LETTERS.indexOf(san.charAt(0));
+            start = 1;
+        }
+
+        int promotion = -1;
+        if (end > 0 && isPieceLetter(san.charAt(end - 1))) {
+            promotion = PIECE_LETTERS.indexOf(san.charAt(end - 1));
+            end--;
+            if (end > 0 && san.charAt(end - 1) == '=') {
+                end--;
+            }
+        }
+
+        if (end - start < 2 || !isFile(san.charAt(end - 2)) || !isRank(san.charAt(end - 1))) {
+            throw invalid(san, "no target square");
+        }
+        int to = Bitboards.square(san.charAt(end - 1) - '0', san.charAt(end - 2) - 'a' + 1);
+        end -= 2;
+
+        // whatever is left between the piece and the target is disambiguation and capture marks
+        int fromFile = -1;
+        int fromRank = -1;
+        for (int i = start; i < end; i++) {
+            char c = san.charAt(i);
+            if (isFile(c)) {
+                fromFile = c - 'a';
+            } else if (isRank(c)) {
+                fromRank = c - '1';
+            } else if (c != 'x' && c != ':' && c != '-') {
+                throw invalid(san, "unexpected '" + c + "'");
+            }
+        }
+
+        ChessBoard board = game.getBoard();
+        int match = 0;
+        int matches = 0;
+        for (int i = 0; i < legal.size(); i++) {
+            int move = legal.get(i);
+            int from = Moves.from(move);
+            if (Moves.to(move) != to || ChessBoard.typeOf(board.pieceIndexAt(from)).ordinal() != type
+                    || (fromFile >= 0 && (from & 7) != fromFile) || (fromRank >= 0 && (from >>> 3) != fromRank)) {
+                continue;
+            }
+            int promotedTo = Moves.isPromotion(move) ? Moves.promotion(move).ordinal() : -1;
+            if (promotedTo != promotion) {
+                continue;
+            }
+            match = move;
+            matches++;
+        }
+        if (matches == 0) {
+            throw invalid(san, "not a legal move");
+        }
+        if (matches > 1) {
+            throw invalid(san, "ambiguous");
+        }
+        return match;
+    }
+
+    private static int parseCastle(CharSequence san, int end, MoveList legal) {
+        int flags;
+        if (end == 3) {
+            flags = Moves.KING_CASTLE;
+        } else if (end == 5) {
+            flags = Moves.QUEEN_CASTLE;
+        } else {
+            throw invalid(san, "not a castle");
+        }
+        for (int i = 0; i < end; i++) {
+            char c = san.charAt(i);
+            if (i % 2 == 0 ? c != san.charAt(0) : c != '-') {
+                throw invalid(san, "not a castle");
+            }
+        }
+        for (int i = 0; i < legal.size(); i++) {
+            if (Moves.flags(legal.get(i)) == flags) {
+                return legal.get(i);
+            }
+        }
+        throw invalid(san, "castling is not legal");
+    }
+
+    /**
+     * Writes a move in SAN, with a "+" or "#" suffix when it gives check or mate
+     *
+     * @param game  the position the move is played from; it is left unchanged
+     * @param move  a legal packed move
+     * @param legal the legal moves of the side to move, used to disambiguate
+     * @return the move text
+     */
+    public static String format(ChessGame game, int move, MoveList legal) {
+        game.doMove(move);
+        ChessGame.TeamColor opponent = game.getTeamTurn();
+        boolean check = game.isInCheck(opponent);
+        boolean mate = check && game.isInCheckmate(opponent);
+        game.undoMove();
+        return format(game.getBoard(), move, legal, check, mate);
+    }
+
+    /**
+     * Writes a move in SAN when the caller already knows whether it gives
+     * check or mate, so nothing is played or generated here
+     *
+     * @param board the board before the move
+     * @param move  a legal packed move
+     * @param legal the legal moves of the side to move, used to disambiguate
+     */
+    public static String format(ChessBoard board, int move, MoveList legal, boolean check, boolean mate) {
+        StringBuilder san = new StringBuilder(8);
+        appendMove(san, board, move, legal);
+        if (mate) {
+            san.append('#');
+        } else if (check) {
+            san.append('+');
+        }
+        return san.toString();
+    }
+
+    /**
+     * Appends a move in SAN without a check suffix. Only moves in the legal
+     * list that land on the same square are looked at to disambiguate.
+     */
+    static void appendMove(StringBuilder san, ChessBoard board, int move, MoveList legal) {
+        int flags = Moves.flags(move);
+        if (flags == Moves.KING_CASTLE) {
+            san.append("O-O");
+            return;
+        }
+        if (flags == Moves.QUEEN_CASTLE) {
+            san.append("O-O-O");
+            return;
+        }
+
+        int from = Moves.from(move);
+        int to = Moves.to(move);
+        int index = board.pieceIndexAt(from);
+        ChessPiece.PieceType type = ChessBoard.typeOf(index);
+        if (type == ChessPiece.PieceType.PAWN) {
+            if (Moves.isCapture(move)) {
+                san.append(fileLetter(from)).append('x');
+            }
+            appendSquare(san, to);
+            if (Moves.isPromotion(move)) {
+                san.append('=').append(PIECE_LETTERS.charAt(Moves.promotion(move).ordinal()));
+            }
+            return;
+        }
+
+        san.append(PIECE_LETTERS.charAt(type.ordinal()));
+        boolean ambiguous = false;
+        boolean sameFile = false;
+        boolean sameRank = false;
+        for (int i = 0; i < legal.size(); i++) {
+            int other = legal.get(i);
+            int otherFrom = Moves.from(other);
+            if (Moves.to(other) == to && otherFrom != from && board.pieceIndexAt(otherFrom) == index) {
+                ambiguous = true;
+                sameFile |= (otherFrom & 7) == (from & 7);
+                sameRank |= (otherFrom >>> 3) == (from >>> 3);
+            }
+        }
+        if (ambiguous) {
+            if (!sameFile) {
+                san.append(fileLetter(from));
+            } else if (!sameRank) {
+                san.append(rankDigit(from));
+            } else {
+                san.append(fileLetter(from)).append(rankDigit(from));
+            }
+        }
+        if (Moves.isCapture(move)) {
+            san.append('x');
+        }
+        appendSquare(san, to);
+    }
+
+    private static void appendSquare(StringBuilder san, int square) {
+        san.append(fileLetter(square)).append(rankDigit(square));
+    }
+
+    private static char fileLetter(int square) {
+        return (char) ('a' + (square & 7));
+    }
+
+    private static char rankDigit(int square) {
+        return (char) ('1' + (square >>> 3));
+    }
+
+    private static boolean isSuffix(char c) {
+        return c == '+' || c == '#' || c == '!' || c == '?';
+    }
+
+    private static boolean isPieceLetter(char c) {
+        return c == 'K' || c == 'Q' || c == 'B' || c == 'N' || c == 'R' || c == 'P';
+    }
+
+    private static boolean isFile(char c) {
+        return c >= 'a' && c <= 'h';
+    }
+
+    private static boolean isRank(char c) {
+        return c >= '1' && c <= '8';
+    }
+
+    private static IllegalArgumentException invalid(CharSequence san, String problem) {
+        return new IllegalArgumentException("Invalid SAN move '" + san + "': " + problem);
+    }
+}
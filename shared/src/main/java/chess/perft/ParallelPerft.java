@@ -0,0 +1,89 @@
+package chess.perft;
+
+import chess.ChessGame;
+import chess.ChessMove;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Runs perft on a {@link ForkJoinPool}. The move tree is split into one task
+ * per move for the first {@code splitDepth} plies; each task works on its own
+ * copy of the game and counts the rest of its subtree sequentially.
+ */
+public class ParallelPerft {
+    private static final int DEFAULT_SPLIT_DEPTH = 2;
+
+    private final ForkJoinPool pool;
+    private final int splitDepth;
+
+    public ParallelPerft(ForkJoinPool pool, int splitDepth) {
+        this.pool = pool;
+        this.splitDepth = Math.max(1, splitDepth);
+    }
+
+    public ParallelPerft() {
+        this(ForkJoinPool.commonPool(), DEFAULT_SPLIT_DEPTH);
+    }
+
+    /**
+     * @return the number of leaf nodes {@code depth} plies below the game's position
+     */
+    public long perft(ChessGame game, int depth) {
+        return pool.invoke(new PerftTask(game.copy(), depth, splitDepth));
+    }
+
+    /**
+     * @return the node count below each root move, ordered by move
+     */
+    public Map<ChessMove, Long> divide(ChessGame game, int depth) {
+        List<ChessMove> moves = new ArrayList<>(game.allLegalMoves(game.getTeamTurn()));
+        List<PerftTask> tasks = new ArrayList<>();
+        for (ChessMove move : moves) {
+            ChessGame child = game.copy();
+            child.doMove(move);
+            tasks.add(new PerftTask(child, depth - 1, splitDepth - 1));
+        }
+
+        Map<ChessMove, Long> counts = new TreeMap<>(Comparator.comparing(ChessMove::toString));
+        pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+        for (int i = 0; i < moves.size(); i++) {
+            counts.put(moves.get(i), tasks.get(i).join());
+        }
+        return counts;
+    }
+
+    // fork/join tasks are Serializable by inheritance, but these never leave the pool
+    @SuppressWarnings("serial")
+    private static class PerftTask extends RecursiveTask<Long> {
+        private final ChessGame game;
+        private final int depth;
+        private final int splitDepth;
+
+        PerftTask(ChessGame game, int depth, int splitDepth) {
+            this.game = game;
+            this.depth = depth;
+            this.splitDepth = splitDepth;
+        }
+
+        @Override
+        protected Long compute() {
+            if (splitDepth <= 0 || depth <= 2) {
+                return new Perft().perft(game, depth);
+            }
+            List<PerftTask> children = new ArrayList<>();
+            for (ChessMove move : game.allLegalMoves(game.getTeamTurn())) {
+                ChessGame child = game.copy();
+                child.doMove(move);
+                children.add(new PerftTask(child, depth - 1, splitDepth - 1));
+            }
+            long nodes = 0;
+            for (PerftTask child : invokeAll(children)) {
+                nodes += child.join();
+            }
+            return nodes;
+        }
+    }
+}
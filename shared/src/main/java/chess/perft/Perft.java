@@ -0,0 +1,194 @@
+package chess.perft;
+
+import chess.*;
+
+import java.util.*;
+
+/**
+ * Counts the leaf nodes of the legal move tree to a fixed depth.
+ * <p>
+ * Comparing the counts against published values catches move generation
+ * bugs, and timing the walk gives a throughput figure for the move
+ * generator. Run from the command line as:
+ * <pre>
+ *   Perft &lt;fen|startpos&gt; &lt;depth&gt; [--divide] [--validmoves] [--parallel]
+ *   Perft --suite
+ * </pre>
+ */
+public final class Perft {
+
+    /**
+     * Which public API the walk uses to list moves
+     */
+    public enum MoveSource {
+        /** {@link ChessGame#generateLegalMoves(MoveList)}, the allocation free path */
+        LEGAL_MOVES,
+        /** {@link ChessGame#validMoves(ChessPosition)} called on every square of the side to move */
+        VALID_MOVES
+    }
+
+    private final MoveSource source;
+    private MoveList[] moveLists = new MoveList[0];
+
+    /**
+     * A perft walker reuses its move lists between calls, so each thread
+     * needs its own
+     */
+    public Perft(MoveSource source) {
+        this.source = source;
+    }
+
+    public Perft() {
+        this(MoveSource.LEGAL_MOVES);
+    }
+
+    /**
+     * @return the number of leaf nodes {@code depth} plies below the current position
+     */
+    public long perft(ChessGame game, int depth) {
+        if (source == MoveSource.LEGAL_MOVES) {
+            if (moveLists.length < depth) {
+                moveLists = new MoveList[depth];
+                for (int ply = 0; ply < depth; ply++) {
+                    moveLists[ply] = new MoveList();
+                }
+            }
+            return perftPacked(game, depth, 0);
+        }
+        return perftBoxed(game, depth);
+    }
+
+    private long perftPacked(ChessGame game, int depth, int ply) {
+        if (depth <= 0) {
+            return 1;
+        }
+        MoveList moves = moveLists[ply];
+        game.generateLegalMoves(moves);
+        if (depth == 1) {
+            return moves.size();
+        }
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            game.doMove(moves.get(i));
+            nodes += perftPacked(game, depth - 1, ply + 1);
+            game.undoMove();
+        }
+        return nodes;
+    }
+
+    private long perftBoxed(ChessGame game, int depth) {
+        if (depth <= 0) {
+            return 1;
+        }
+        Collection<ChessMove> moves = moves(game);
+        if (depth == 1) {
+            return moves.size();
+        }
+        long nodes = 0;
+        for (ChessMove move : moves) {
+            game.doMove(move);
+            nodes += perftBoxed(game, depth - 1);
+            game.undoMove();
+        }
+        return nodes;
+    }
+
+    /**
+     * Splits a perft count by root move, which narrows a wrong total down to
+     * the move whose subtree disagrees with a reference engine
+     *
+     * @return the node count below each root move, ordered by move
+     */
+    public Map<ChessMove, Long> divide(ChessGame game, int depth) {
+        Map<ChessMove, Long> counts = new TreeMap<>(Comparator.comparing(ChessMove::toString));
+        for (ChessMove move : moves(game)) {
+            game.doMove(move);
+            counts.put(move, perft(game, depth - 1));
+            game.undoMove();
+        }
+        return counts;
+    }
+
+    private Collection<ChessMove> moves(ChessGame game) {
+        ChessGame.TeamColor team = game.getTeamTurn();
+        if (source == MoveSource.LEGAL_MOVES) {
+            return game.allLegalMoves(team);
+        }
+        List<ChessMove> moves = new ArrayList<>();
+        ChessBoard board = game.getBoard();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPosition position = ChessPosition.of(row, col);
+                ChessPiece piece = board.getPiece(position);
+                if (piece != null && piece.getTeamColor() == team) {
+                    moves.addAll(game.validMoves(position));
+                }
+            }
+        }
+        return moves;
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.out.println("Usage: Perft <fen|startpos> <depth> [--divide] [--validmoves] [--parallel]");
+            System.out.println("       Perft --suite");
+            return;
+        }
+        if (args[0].equals("--suite")) {
+            runSuite();
+            return;
+        }
+        if (args.length < 2) {
+            System.out.println("Missing depth");
+            return;
+        }
+
+        String fen = args[0].equals("startpos") ? PerftPosition.START_FEN : args[0];
+        int depth = Integer.parseInt(args[1]);
+        List<String> flags = Arrays.asList(args).subList(2, args.length);
+        Perft perft = new Perft(flags.contains("--validmoves") ? MoveSource.VALID_MOVES : MoveSource.LEGAL_MOVES);
+        ChessGame game = ChessGame.fromFen(fen);
+
+        boolean parallel = flags.contains("--parallel");
+
+        long start = System.nanoTime();
+        long nodes;
+        if (flags.contains("--divide")) {
+            Map<ChessMove, Long> counts = parallel ? new ParallelPerft().divide(game, depth)
+                    : perft.divide(game, depth);
+            nodes = 0;
+            for (Map.Entry<ChessMove, Long> entry : counts.entrySet()) {
+                System.out.println(entry.getKey() + ": " + entry.getValue());
+                nodes += entry.getValue();
+            }
+        } else {
+            nodes = parallel ? new ParallelPerft().perft(game, depth) : perft.perft(game, depth);
+        }
+        report(depth, nodes, System.nanoTime() - start);
+    }
+
+    private static void runSuite() {
+        Perft perft = new Perft();
+        boolean allPassed = true;
+        for (PerftPosition position : PerftPosition.REFERENCE_POSITIONS) {
+            System.out.println(position.name() + ": " + position.fen());
+            for (int depth = 1; depth <= position.maxDepth(); depth++) {
+                long start = System.nanoTime();
+                long nodes = perft.perft(ChessGame.fromFen(position.fen()), depth);
+                long expected = position.expectedNodes(depth);
+                report(depth, nodes, System.nanoTime() - start);
+                if (nodes != expected) {
+                    System.out.println("  MISMATCH: expected " + expected);
+                    allPassed = false;
+                }
+            }
+        }
+        System.out.println(allPassed ? "All perft counts match" : "Perft counts do not match");
+    }
+
+    private static void report(int depth, long nodes, long nanos) {
+        double seconds = nanos / 1e9;
+        long nodesPerSecond = seconds > 0 ? (long) (nodes / seconds) : nodes;
+        System.out.printf("  depth %d: %,d nodes in %.3f s (%,d nodes/s)%n", depth, nodes, seconds, nodesPerSecond);
+    }
+}
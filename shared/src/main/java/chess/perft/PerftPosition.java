@@ -0,0 +1,45 @@
+package chess.perft;
+
+import java.util.List;
+
+/**
+ * A position with known perft node counts
+ *
+ * @param name  a short label for reports
+ * @param fen   the position in Forsyth-Edwards Notation
+ * @param nodes the expected node count at depth 1, 2, 3 ...
+ */
+public record PerftPosition(String name, String fen, long... nodes) {
+
+    public static final String START_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    /**
+     * Standard reference positions (from the Chess Programming Wiki perft
+     * results), kept to depths that run in a few seconds
+     */
+    public static final List<PerftPosition> REFERENCE_POSITIONS = List.of(
+            new PerftPosition("start", START_FEN, 20, 400, 8_902, 197_281),
+            new PerftPosition("kiwipete",
+                    "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                    48, 2_039, 97_862),
+            new PerftPosition("position 3", "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+                    14, 191, 2_812, 43_238),
+            new PerftPosition("position 4",
+                    "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+                    6, 264, 9_467),
+            new PerftPosition("position 5",
+                    "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+                    44, 1_486, 62_379),
+            new PerftPosition("position 6",
+                    "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+                    46, 2_079, 89_890)
+    );
+
+    public int maxDepth() {
+        return nodes.length;
+    }
+
+    public long expectedNodes(int depth) {
+        return nodes[depth - 1];
+    }
+}
@@ -0,0 +1,176 @@
+package chess.search;
+
+import chess.AttackTables;
+import chess.Bitboards;
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.Material;
+import chess.PieceSquareTables;
+
+import static chess.ChessGame.TeamColor.BLACK;
+import static chess.ChessGame.TeamColor.WHITE;
+import static chess.ChessPiece.PieceType.*;
+
+/**
+ * Scores a position from the side to move's point of view.
+ * <p>
+ * Material and piece-square values come from the running totals the board
+ * keeps as pieces move, blended between their midgame and endgame values by
+ * how much material is left. Pawn structure and king shelter only change
+ * when a pawn or king moves, so they are cached by the board's pawn key.
+ * Pressure on each king is counted fresh every call from the attack tables.
+ * <p>
+ * Nothing is allocated per call. The pawn cache is not synchronized, so give
+ * each search thread its own evaluator.
+ */
+public class Evaluator {
+    /** Centipawn values indexed by {@link chess.ChessPiece.PieceType} ordinal, used for move ordering */
+    static final int[] PIECE_VALUES = { 0, 900, 330, 320, 500, 100 };
+
+    private static final ChessGame.TeamColor[] TEAMS = ChessGame.TeamColor.values();
+    private static final int PAWN_CACHE_SIZE = 1 << 14;
+
+    private static final int DOUBLED_MIDGAME = -10;
+    private static final int DOUBLED_ENDGAME = -20;
+    private static final int ISOLATED_MIDGAME = -10;
+    private static final int ISOLATED_ENDGAME = -15;
+    /** Passed pawn bonus indexed by rank counted from the pawn's own side, 0-7 */
+    private static final int[] PASSED_MIDGAME = { 0, 5, 10, 15, 25, 40, 60, 0 };
+    private static final int[] PASSED_ENDGAME = { 0, 10, 20, 35, 55, 80, 110, 0 };
+    private static final int SHELTER_MIDGAME = 12;
+    private static final int MAX_KING_DANGER = 300;
+
+    private static final long[] ADJACENT_FILES = new long[8];
+    /** Squares ahead of a pawn on its own and neighbouring files, per team */
+    private static final long[][] PASSED_SPAN = new long[2][64];
+    /** The two ranks in front of a king on its own and neighbouring files, per team */
+    private static final long[][] SHELTER_ZONE = new long[2][64];
+
+    static {
+        for (int file = 0; file < 8; file++) {
+            if (file > 0) {
+                ADJACENT_FILES[file] |= Bitboards.FILE_A << (file - 1);
+            }
+            if (file < 7) {
+                ADJACENT_FILES[file] |= Bitboards.FILE_A << (file + 1);
+            }
+        }
+        for (int square = 0; square < 64; square++) {
+            int rank = square >>> 3;
+            long files = ADJACENT_FILES[square & 7] | (Bitboards.FILE_A << (square & 7));
+            for (int ahead = rank + 1; ahead < 8; ahead++) {
+                PASSED_SPAN[WHITE.ordinal()][square] |= files & (Bitboards.RANK_1 << (ahead * 8));
+            }
+            for (int ahead = rank - 1; ahead >= 0; ahead--) {
+                PASSED_SPAN[BLACK.ordinal()][square] |= files & (Bitboards.RANK_1 << (ahead * 8));
+            }
+            for (int step = 1; step <= 2; step++) {
+                if (rank + step < 8) {
+                    SHELTER_ZONE[WHITE.ordinal()][square] |= files & (Bitboards.RANK_1 << ((rank + step) * 8));
+                }
+                if (rank - step >= 0) {
+                    SHELTER_ZONE[BLACK.ordinal()][square] |= files & (Bitboards.RANK_1 << ((rank - step) * 8));
+                }
+            }
+        }
+    }
+
+    private final long[] pawnKeys = new long[PAWN_CACHE_SIZE];
+    private final int[] pawnMidgame = new int[PAWN_CACHE_SIZE];
+    private final int[] pawnEndgame = new int[PAWN_CACHE_SIZE];
+
+    /**
+     * @return the position's score in centipawns from the side to move's point of view
+     */
+    public int evaluate(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        if (Material.isInsufficient(board.getMaterialKey())) {
+            return 0;
+        }
+        int midgame = board.getMidgameScore();
+        int endgame = board.getEndgameScore();
+
+        // an empty slot holds key 0 with zero scores, which is also the right answer for no pawns or kings
+        long pawnKey = board.getPawnKey();
+        int slot = (int) pawnKey & (PAWN_CACHE_SIZE - 1);
+        if (pawnKeys[slot] != pawnKey) {
+            scorePawns(board, slot);
+            pawnKeys[slot] = pawnKey;
+        }
+        midgame += pawnMidgame[slot];
+        endgame += pawnEndgame[slot];
+
+        midgame += kingDanger(board, BLACK) - kingDanger(board, WHITE);
+
+        int phase = Math.min(board.getPhase(), PieceSquareTables.MAX_PHASE);
+        int score = (midgame * phase + endgame * (PieceSquareTables.MAX_PHASE - phase)) / PieceSquareTables.MAX_PHASE;
+        return game.getTeamTurn() == WHITE ? score : -score;
+    }
+
+    private void scorePawns(ChessBoard board, int slot) {
+        int midgame = 0;
+        int endgame = 0;
+        for (ChessGame.TeamColor team : TEAMS) {
+            int sign = team == WHITE ? 1 : -1;
+            long own = board.getPieces(team, PAWN);
+            long enemy = board.getPieces(team.other(), PAWN);
+
+            for (long pawns = own; pawns != 0; pawns &= pawns - 1) {
+                int square = Bitboards.first(pawns);
+                if ((own & ADJACENT_FILES[square & 7]) == 0) {
+                    midgame += sign * ISOLATED_MIDGAME;
+                    endgame += sign * ISOLATED_ENDGAME;
+                }
+                if ((PASSED_SPAN[team.ordinal()][square] & enemy) == 0) {
+                    int rank = team == WHITE ? square >>> 3 : 7 - (square >>> 3);
+                    midgame += sign * PASSED_MIDGAME[rank];
+                    endgame += sign * PASSED_ENDGAME[rank];
+                }
+            }
+            for (int file = 0; file < 8; file++) {
+                int onFile = Bitboards.count(own & (Bitboards.FILE_A << file));
+                if (onFile > 1) {
+                    midgame += sign * DOUBLED_MIDGAME * (onFile - 1);
+                    endgame += sign * DOUBLED_ENDGAME * (onFile - 1);
+                }
+            }
+
+            int king = board.kingSquare(team);
+            if (king >= 0) {
+                midgame += sign * SHELTER_MIDGAME * Bitboards.count(own & SHELTER_ZONE[team.ordinal()][king]);
+            }
+        }
+        pawnMidgame[slot] = midgame;
+        pawnEndgame[slot] = endgame;
+    }
+
+    /**
+     * Weighs the enemy pieces attacking the squares around a king; the
+     * penalty grows with the square of the attack count, since one attacker
+     * is rarely dangerous but several together usually are
+     */
+    private static int kingDanger(ChessBoard board, ChessGame.TeamColor defender) {
+        int king = board.kingSquare(defender);
+        if (king < 0) {
+            return 0;
+        }
+        long zone = AttackTables.kingAttacks(king) | Bitboards.bit(king);
+        ChessGame.TeamColor attacker = defender.other();
+        long occupied = board.getOccupied();
+
+        int units = 0;
+        for (long pieces = board.getPieces(attacker, KNIGHT); pieces != 0; pieces &= pieces - 1) {
+            units += 2 * Bitboards.count(AttackTables.knightAttacks(Bitboards.first(pieces)) & zone);
+        }
+        for (long pieces = board.getPieces(attacker, BISHOP); pieces != 0; pieces &= pieces - 1) {
+            units += 2 * Bitboards.count(AttackTables.bishopAttacks(Bitboards.first(pieces), occupied) & zone);
+        }
+        for (long pieces = board.getPieces(attacker, ROOK); pieces != 0; pieces &= pieces - 1) {
+            units += 3 * Bitboards.count(AttackTables.rookAttacks(Bitboards.first(pieces), occupied) & zone);
+        }
+        for (long pieces = board.getPieces(attacker, QUEEN); pieces != 0; pieces &= pieces - 1) {
+            units += 5 * Bitboards.count(AttackTables.queenAttacks(Bitboards.first(pieces), occupied) & zone);
+        }
+        return Math.min(units * units / 2, MAX_KING_DANGER);
+    }
+}
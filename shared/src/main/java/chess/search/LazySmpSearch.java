@@ -0,0 +1,146 @@
+package chess.search;
+
+import chess.ChessGame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Searches one position on several threads at once (Lazy SMP).
+ * <p>
+ * Every thread runs an ordinary {@link SearchEngine} on its own copy of the
+ * game. The threads share nothing but a transposition table and the search
+ * limits: what one thread learns about a position is found in the table by
+ * the others, and odd numbered helpers start one iteration deeper so the
+ * threads spread out over the tree instead of searching it in lockstep. The
+ * calling thread is the main thread; its answer is used unless a helper
+ * completed a deeper iteration, and once it finishes the helpers are stopped.
+ */
+public class LazySmpSearch implements AutoCloseable {
+    private final TranspositionTable table;
+    private final SearchEngine[] engines;
+    private final ExecutorService helpers;
+    private volatile SearchControl control;
+
+    /**
+     * @param threads the total number of search threads, including the caller's
+     * @param table   the transposition table shared by all threads
+     */
+    public LazySmpSearch(int threads, TranspositionTable table) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Lazy SMP needs at least one thread: " + threads);
+        }
+        this.table = table;
+        engines = new SearchEngine[threads];
+        for (int i = 0; i < threads; i++) {
+            engines[i] = new SearchEngine(table);
+        }
+        helpers = threads > 1 ? Executors.newFixedThreadPool(threads - 1, runnable -> {
+            Thread thread = new Thread(runnable, "lazy-smp-helper");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    public LazySmpSearch(int threads) {
+        this(threads, new TranspositionTable());
+    }
+
+    /**
+     * Searches the position for the side to move on every thread. The game
+     * passed in is not changed. Time, node and stop limits apply to all
+     * threads together.
+     *
+     * @return the best move found, with the nodes of all threads added up
+     */
+    public SearchResult search(ChessGame position, SearchLimits limits) {
+        table.newSearch();
+        SearchControl searchControl = new SearchControl(limits);
+        control = searchControl;
+
+        List<Future<SearchResult>> helperResults = new ArrayList<>();
+        CountDownLatch started = new CountDownLatch(engines.length - 1);
+        for (int i = 1; i < engines.length; i++) {
+            SearchEngine engine = engines[i];
+            int startDepth = 1 + (i & 1);
+            helperResults.add(helpers.submit(() -> {
+                started.countDown();
+                return engine.search(position, limits, searchControl, startDepth, false);
+            }));
+        }
+        // a shallow search can finish before the pool has scheduled a helper at all
+        awaitHelpers(started);
+
+        SearchResult best = engines[0].search(position, limits, searchControl, 1, true);
+        searchControl.stop();
+
+        for (Future<SearchResult> future : helperResults) {
+            SearchResult helperResult = join(future);
+            if (helperResult != null && helperResult.depth() > best.depth() && helperResult.bestMove() != null) {
+                best = helperResult;
+            }
+        }
+        long totalNodes = 0;
+        for (SearchEngine engine : engines) {
+            totalNodes += engine.nodes();
+        }
+        return new SearchResult(best.bestMove(), best.score(), best.depth(), totalNodes, best.pv());
+    }
+
+    private static void awaitHelpers(CountDownLatch started) {
+        try {
+            started.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static SearchResult join(Future<SearchResult> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Search thread failed", e.getCause());
+        }
+    }
+
+    /**
+     * Asks a running search to return as soon as possible. Safe to call from
+     * another thread.
+     */
+    public void stop() {
+        SearchControl running = control;
+        if (running != null) {
+            running.stop();
+        }
+    }
+
+    /**
+     * @return the nodes each thread visited in the most recent search, main thread first
+     */
+    public long[] threadNodes() {
+        long[] counts = new long[engines.length];
+        for (int i = 0; i < engines.length; i++) {
+            counts[i] = engines[i].nodes();
+        }
+        return counts;
+    }
+
+    public int threads() {
+        return engines.length;
+    }
+
+    @Override
+    public void close() {
+        if (helpers != null) {
+            helpers.shutdownNow();
+        }
+    }
+}
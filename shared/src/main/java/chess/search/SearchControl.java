@@ -0,0 +1,37 @@
+package chess.search;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The limits of one search, shared by every thread working on it. Threads
+ * report their node counts in batches; once the time, node budget or an
+ * explicit stop is reached, every thread sees the same stopped flag.
+ */
+final class SearchControl {
+    private final long deadline;
+    private final long nodeLimit;
+    private final AtomicLong nodes = new AtomicLong();
+    private volatile boolean stopped;
+
+    SearchControl(SearchLimits limits) {
+        deadline = limits.timeMillis() > 0 ? System.nanoTime() + limits.timeMillis() * 1_000_000 : Long.MAX_VALUE;
+        nodeLimit = limits.nodes() > 0 ? limits.nodes() : Long.MAX_VALUE;
+    }
+
+    void stop() {
+        stopped = true;
+    }
+
+    boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * Adds a thread's nodes since its last report and checks the limits
+     */
+    void report(long newNodes) {
+        if (nodes.addAndGet(newNodes) >= nodeLimit || System.nanoTime() >= deadline) {
+            stopped = true;
+        }
+    }
+}
@@ -0,0 +1,376 @@
+package chess.search;
+
+import chess.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Picks a move by negamax alpha-beta search with iterative deepening.
+ * <p>
+ * Each iteration searches the previous iteration's principal variation
+ * first, then captures ordered by most valuable victim / least valuable
+ * attacker, then the two killer moves of the ply, then quiet moves by their
+ * history score. Leaves are resolved by a quiescence search over captures so
+ * the evaluation is never taken in the middle of an exchange. Results are
+ * kept in a {@link TranspositionTable}, which cuts off positions reached
+ * again by another move order and supplies a best move to try first.
+ * <p>
+ * The tree is walked with packed moves (see {@link Moves}) and one
+ * preallocated {@link MoveList} per ply, so the search itself does not
+ * allocate; {@link ChessMove}s are only built for the result.
+ * <p>
+ * An engine keeps its ordering tables between calls and is not thread safe;
+ * give each thread its own engine. Engines may share one transposition table.
+ */
+public class SearchEngine {
+    public static final int MATE = 30_000;
+    static final int MAX_PLY = 128;
+
+    private static final int INFINITY = 32_000;
+    private static final int CHECK_INTERVAL = 1024;
+
+    private static final int PV_SCORE = 1 << 30;
+    private static final int HASH_SCORE = PV_SCORE - 1;
+    private static final int CAPTURE_SCORE = 1 << 29;
+    private static final int KILLER_SCORE = 1 << 28;
+
+    private final TranspositionTable table;
+    private final Evaluator evaluator = new Evaluator();
+    private final MoveList[] moveLists = new MoveList[MAX_PLY];
+    private final int[][] moveScores = new int[MAX_PLY][MoveList.CAPACITY];
+    private final int[][] killers = new int[MAX_PLY][2];
+    private final int[][] history = new int[12][64];
+    private final int[][] pvTable = new int[MAX_PLY][MAX_PLY];
+    private final int[] pvLength = new int[MAX_PLY];
+    private final int[] previousPv = new int[MAX_PLY];
+
+    private volatile SearchControl control;
+    private ChessGame game;
+    private ChessBoard board;
+    private int previousPvLength;
+    private boolean mustFinishFirstIteration;
+    private long nodes;
+    private long reportedNodes;
+    private int completedDepth;
+    private boolean aborted;
+
+    /**
+     * @param table the transposition table to read and fill; may be shared with other engines
+     */
+    public SearchEngine(TranspositionTable table) {
+        this.table = table;
+        for (int ply = 0; ply < MAX_PLY; ply++) {
+            moveLists[ply] = new MoveList();
+        }
+    }
+
+    public SearchEngine() {
+        this(new TranspositionTable());
+    }
+
+    /**
+     * Searches the position for the side to move. The game passed in is not changed.
+     *
+     * @param position the position to search
+     * @param limits   when to stop
+     * @return the best move found, with its score and principal variation
+     */
+    public SearchResult search(ChessGame position, SearchLimits limits) {
+        table.newSearch();
+        return search(position, limits, new SearchControl(limits), 1, true);
+    }
+
+    /**
+     * Runs one thread's share of a search
+     *
+     * @param control    the limits, shared with any other threads on the same search
+     * @param startDepth the first iteration to run
+     * @param mainThread True if the first iteration must complete regardless of the limits
+     * @return the deepest completed iteration, or null if none completed
+     */
+    SearchResult search(ChessGame position, SearchLimits limits, SearchControl control,
+                        int startDepth, boolean mainThread) {
+        this.control = control;
+        mustFinishFirstIteration = mainThread;
+        game = position.copy();
+        board = game.getBoard();
+        for (int[] plyKillers : killers) {
+            Arrays.fill(plyKillers, Moves.NONE);
+        }
+        for (int[] pieceHistory : history) {
+            Arrays.fill(pieceHistory, 0);
+        }
+        previousPvLength = 0;
+        nodes = 0;
+        reportedNodes = 0;
+        completedDepth = 0;
+        aborted = false;
+
+        ChessGame.TeamColor team = game.getTeamTurn();
+        game.generateLegalMoves(moveLists[0]);
+        if (moveLists[0].isEmpty()) {
+            return new SearchResult(null, game.isInCheck(team) ? -MATE : 0, 0, 0, List.of());
+        }
+
+        SearchResult best = null;
+        for (int depth = Math.min(startDepth, limits.depth()); depth <= limits.depth(); depth++) {
+            int score = negamax(depth, 0, -INFINITY, INFINITY, true);
+            if (aborted) {
+                break;
+            }
+            previousPvLength = pvLength[0];
+            System.arraycopy(pvTable[0], 0, previousPv, 0, previousPvLength);
+            List<ChessMove> pv = new ArrayList<>(previousPvLength);
+            for (int i = 0; i < previousPvLength; i++) {
+                pv.add(Moves.toChessMove(previousPv[i]));
+            }
+            best = new SearchResult(pv.getFirst(), score, depth, nodes, List.copyOf(pv));
+            completedDepth = depth;
+            if (best.isMate()) {
+                break;
+            }
+        }
+        control.report(nodes - reportedNodes);
+        return best == null ? null : new SearchResult(best.bestMove(), best.score(), best.depth(), nodes, best.pv());
+    }
+
+    /**
+     * Asks a running search to return as soon as possible. Safe to call from
+     * another thread.
+     */
+    public void stop() {
+        SearchControl running = control;
+        if (running != null) {
+            running.stop();
+        }
+    }
+
+    /**
+     * @return the nodes visited by this engine in its current or most recent search
+     */
+    public long nodes() {
+        return nodes;
+    }
+
+    private int negamax(int depth, int ply, int alpha, int beta, boolean onPv) {
+        pvLength[ply] = ply;
+        if (shouldStop()) {
+            return 0;
+        }
+        if (ply > 0 && (game.getHalfmoveClock() >= 100 || game.repetitions() > 1)) {
+            // either side can steer a repeated position into a threefold draw, and past
+            // fifty moves either side can claim one
+            return 0;
+        }
+        if (depth <= 0) {
+            return quiesce(ply, alpha, beta);
+        }
+        nodes++;
+        if (ply >= MAX_PLY - 1) {
+            return evaluator.evaluate(game);
+        }
+
+        ChessGame.TeamColor team = game.getTeamTurn();
+        boolean inCheck = game.isInCheck(team);
+        if (inCheck) {
+            // look one ply further so a check is never the last move seen
+            depth++;
+        }
+
+        long key = game.positionKey();
+        long entry = table.probe(key, ply);
+        if (entry != TranspositionTable.MISS && ply > 0 && TranspositionTable.depthOf(entry) >= depth) {
+            int stored = TranspositionTable.scoreOf(entry);
+            int bound = TranspositionTable.boundOf(entry);
+            if (bound == TranspositionTable.BOUND_EXACT
+                    || (bound == TranspositionTable.BOUND_LOWER && stored >= beta)
+                    || (bound == TranspositionTable.BOUND_UPPER && stored <= alpha)) {
+                return stored;
+            }
+        }
+
+        MoveList moves = moveLists[ply];
+        game.generateLegalMoves(moves);
+        if (moves.isEmpty()) {
+            return inCheck ? -MATE + ply : 0;
+        }
+        int pvMove = onPv && ply < previousPvLength ? previousPv[ply] : Moves.NONE;
+        int hashMove = entry == TranspositionTable.MISS ? Moves.NONE : TranspositionTable.moveOf(entry);
+        int[] scores = moveScores[ply];
+        scoreMoves(moves, scores, ply, pvMove, hashMove);
+
+        int originalAlpha = alpha;
+        int bestScore = -INFINITY;
+        int bestMove = Moves.NONE;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = nextBest(moves, scores, i);
+            int to = Moves.to(move);
+            int piece = board.pieceIndexAt(Moves.from(move));
+            boolean quiet = !Moves.isCapture(move) && !Moves.isPromotion(move);
+
+            game.doMove(move);
+            int score = -negamax(depth - 1, ply + 1, -beta, -alpha, move == pvMove);
+            game.undoMove();
+            if (aborted) {
+                return 0;
+            }
+
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+            }
+            if (score > alpha) {
+                alpha = score;
+                updatePv(ply, move);
+                if (alpha >= beta) {
+                    if (quiet) {
+                        storeKiller(ply, move);
+                        history[piece][to] += depth * depth;
+                    }
+                    break;
+                }
+            }
+        }
+
+        int bound = bestScore >= beta ? TranspositionTable.BOUND_LOWER
+                : bestScore > originalAlpha ? TranspositionTable.BOUND_EXACT : TranspositionTable.BOUND_UPPER;
+        table.store(key, ply, bound == TranspositionTable.BOUND_UPPER ? Moves.NONE : bestMove, bestScore, depth, bound);
+        return bestScore;
+    }
+
+    private int quiesce(int ply, int alpha, int beta) {
+        pvLength[ply] = ply;
+        nodes++;
+        if (ply >= MAX_PLY - 1) {
+            return evaluator.evaluate(game);
+        }
+        ChessGame.TeamColor team = game.getTeamTurn();
+        boolean inCheck = game.isInCheck(team);
+        MoveList moves = moveLists[ply];
+        game.generateLegalMoves(moves);
+
+        int bestScore;
+        if (inCheck) {
+            if (moves.isEmpty()) {
+                return -MATE + ply;
+            }
+            bestScore = -INFINITY;
+        } else {
+            // the side to move may decline every capture and keep the static score
+            bestScore = evaluator.evaluate(game);
+            if (bestScore >= beta) {
+                return bestScore;
+            }
+            alpha = Math.max(alpha, bestScore);
+        }
+
+        int[] scores = moveScores[ply];
+        scoreMoves(moves, scores, ply, Moves.NONE, Moves.NONE);
+        for (int i = 0; i < moves.size(); i++) {
+            int move = nextBest(moves, scores, i);
+            if (!inCheck && scores[i] < CAPTURE_SCORE) {
+                // in check every evasion has to be looked at, otherwise only captures and promotions
+                break;
+            }
+            game.doMove(move);
+            int score = -quiesce(ply + 1, -beta, -alpha);
+            game.undoMove();
+            if (shouldStop()) {
+                return 0;
+            }
+
+            if (score > bestScore) {
+                bestScore = score;
+            }
+            if (score > alpha) {
+                alpha = score;
+                if (alpha >= beta) {
+                    break;
+                }
+            }
+        }
+        return bestScore;
+    }
+
+    private void scoreMoves(MoveList moves, int[] scores, int ply, int pvMove, int hashMove) {
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int to = Moves.to(move);
+            int attacker = board.pieceIndexAt(Moves.from(move));
+
+            if (move == pvMove) {
+                scores[i] = PV_SCORE;
+            } else if (move == hashMove) {
+                scores[i] = HASH_SCORE;
+            } else if (Moves.isCapture(move) || Moves.isPromotion(move)) {
+                int victim = board.pieceIndexAt(to);
+                int victimValue = victim == ChessBoard.NO_PIECE ? 0 : valueOf(victim);
+                int promotionValue = Moves.isPromotion(move)
+                        ? Evaluator.PIECE_VALUES[Moves.promotion(move).ordinal()] : 0;
+                scores[i] = CAPTURE_SCORE + (victimValue + promotionValue) * 16 - valueOf(attacker) / 16;
+            } else if (move == killers[ply][0] || move == killers[ply][1]) {
+                scores[i] = KILLER_SCORE;
+            } else {
+                scores[i] = Math.min(history[attacker][to], KILLER_SCORE - 1);
+            }
+        }
+    }
+
+    private static int valueOf(int pieceIndex) {
+        ChessPiece.PieceType type = ChessBoard.typeOf(pieceIndex);
+        // the king never gets captured, but ranks last as an attacker
+        return type == ChessPiece.PieceType.KING ? 2_000 : Evaluator.PIECE_VALUES[type.ordinal()];
+    }
+
+    /**
+     * Moves the best scoring of the remaining moves into slot {@code index},
+     * so ordering costs nothing for the moves a cutoff skips
+     */
+    private static int nextBest(MoveList moves, int[] scores, int index) {
+        int best = index;
+        for (int i = index + 1; i < moves.size(); i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        if (best != index) {
+            moves.swap(index, best);
+            int score = scores[index];
+            scores[index] = scores[best];
+            scores[best] = score;
+        }
+        return moves.get(index);
+    }
+
+    private void storeKiller(int ply, int move) {
+        if (move != killers[ply][0]) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+    }
+
+    private void updatePv(int ply, int move) {
+        pvTable[ply][ply] = move;
+        int childLength = pvLength[ply + 1];
+        System.arraycopy(pvTable[ply + 1], ply + 1, pvTable[ply], ply + 1, childLength - (ply + 1));
+        pvLength[ply] = Math.max(childLength, ply + 1);
+    }
+
+    private boolean shouldStop() {
+        if (aborted) {
+            return true;
+        }
+        if (nodes - reportedNodes >= CHECK_INTERVAL) {
+            // batch node counts and clock reads, which are slow next to visiting a node
+            control.report(nodes - reportedNodes);
+            reportedNodes = nodes;
+        }
+        if (control.isStopped() && (completedDepth > 0 || !mustFinishFirstIteration)) {
+            // the main thread always finishes its first iteration so there is a move to return
+            aborted = true;
+        }
+        return aborted;
+    }
+}
@@ -0,0 +1,34 @@
+package chess.search;
+
+/**
+ * How much work a search may do before it must answer. The search stops at
+ * whichever limit it reaches first, but always finishes at least depth 1.
+ *
+ * @param depth      the deepest iteration to run
+ * @param timeMillis wall clock budget in milliseconds, or 0 for no time limit
+ * @param nodes      the most nodes to visit, or 0 for no node limit
+ */
+public record SearchLimits(int depth, long timeMillis, long nodes) {
+    public static final int MAX_DEPTH = 64;
+
+    public SearchLimits {
+        if (depth < 1 || depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Search depth must be between 1 and " + MAX_DEPTH + ": " + depth);
+        }
+        if (timeMillis < 0 || nodes < 0) {
+            throw new IllegalArgumentException("Search limits cannot be negative");
+        }
+    }
+
+    public static SearchLimits depth(int depth) {
+        return new SearchLimits(depth, 0, 0);
+    }
+
+    public static SearchLimits time(long millis) {
+        return new SearchLimits(MAX_DEPTH, millis, 0);
+    }
+
+    public static SearchLimits nodes(long nodes) {
+        return new SearchLimits(MAX_DEPTH, 0, nodes);
+    }
+}
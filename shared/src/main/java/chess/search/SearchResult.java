@@ -0,0 +1,25 @@
+package chess.search;
+
+import chess.ChessMove;
+
+import java.util.List;
+
+/**
+ * The outcome of a search
+ *
+ * @param bestMove the move to play, or null when the side to move has no legal move
+ * @param score    centipawns from the side to move's point of view; mates score
+ *                 near {@link SearchEngine#MATE}
+ * @param depth    the deepest iteration that completed
+ * @param nodes    the number of positions visited
+ * @param pv       the principal variation, starting with the best move
+ */
+public record SearchResult(ChessMove bestMove, int score, int depth, long nodes, List<ChessMove> pv) {
+
+    /**
+     * @return True if the score is a forced mate for either side
+     */
+    public boolean isMate() {
+        return Math.abs(score) >= SearchEngine.MATE - SearchEngine.MAX_PLY;
+    }
+}
@@ -0,0 +1,192 @@
+package chess.search;
+
+import chess.Moves;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size hash table of search results, keyed by a 64-bit position key.
+ * <p>
+ * Each entry is two longs in one primitive array: the packed data, and the
+ * key XORed with that data. Readers XOR the two back together and only
+ * trust the entry when the key comes out right, so a slot that another
+ * thread is halfway through rewriting reads as a miss instead of as a wrong
+ * result. That makes the table safe to share between search threads and
+ * between games without any locking, and probing and storing never allocate.
+ * <p>
+ * Data layout (low bit first): packed move (16 bits, see {@link Moves}),
+ * bound (2), depth (7), age (6), then the score as a signed 16-bit value in
+ * bits 32-47.
+ */
+public class TranspositionTable {
+    public static final int DEFAULT_SIZE_MB = 16;
+    public static final int MAX_SIZE_MB = 16_384;
+
+    /** Returned by {@link #probe(long, int)} when the position is not in the table */
+    public static final long MISS = 0L;
+
+    public static final int BOUND_EXACT = 1;
+    public static final int BOUND_LOWER = 2;
+    public static final int BOUND_UPPER = 3;
+
+    private static final int ENTRY_BYTES = 16;
+    private static final int AGE_MASK = 0x3F;
+    private static final int MAX_STORED_DEPTH = 0x7F;
+
+    private final long[] table;
+    private final int indexMask;
+    private volatile int age;
+
+    /**
+     * @param sizeMb the table's memory budget; the entry count is rounded down to a power of two
+     */
+    public TranspositionTable(int sizeMb) {
+        int entries = entries(sizeMb);
+        table = new long[entries * 2];
+        indexMask = entries - 1;
+    }
+
+    public TranspositionTable() {
+        this(DEFAULT_SIZE_MB);
+    }
+
+    /**
+     * @return the number of entries a table of the given size holds
+     */
+    static int entries(int sizeMb) {
+        if (sizeMb < 1 || sizeMb > MAX_SIZE_MB) {
+            throw new IllegalArgumentException("Transposition table size must be between 1 and "
+                    + MAX_SIZE_MB + " MB: " + sizeMb);
+        }
+        long entries = Long.highestOneBit(sizeMb * 1024L * 1024L / ENTRY_BYTES);
+        // a Java array holds just under 2^31 longs, so the largest power of two
+        // count of two-long entries that fits is 2^29
+        return (int) Math.min(entries, 1L << 29);
+    }
+
+    /**
+     * @return the number of entries the table holds
+     */
+    public int capacity() {
+        return indexMask + 1;
+    }
+
+    /**
+     * Marks the start of a new search, so entries from older searches are
+     * replaced in preference to current ones
+     */
+    public void newSearch() {
+        age = (age + 1) & AGE_MASK;
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0L);
+        age = 0;
+    }
+
+    /**
+     * Looks a position up
+     *
+     * @param key the position key
+     * @param ply distance from the root, used to turn stored mate scores back into
+     *            distance from this node
+     * @return the entry's data, or {@link #MISS}
+     */
+    public long probe(long key, int ply) {
+        int slot = slot(key);
+        long data = table[slot + 1];
+        if (data == MISS || (table[slot] ^ data) != key) {
+            return MISS;
+        }
+        int score = scoreOf(data);
+        if (score >= SearchEngine.MATE - SearchEngine.MAX_PLY) {
+            score -= ply;
+        } else if (score <= -SearchEngine.MATE + SearchEngine.MAX_PLY) {
+            score += ply;
+        }
+        return (data & 0xFFFF_FFFFL) | ((long) (score & 0xFFFF) << 32);
+    }
+
+    /**
+     * Stores a search result. An existing entry for another position survives
+     * when it comes from the current search and was searched deeper.
+     *
+     * @param key   the position key
+     * @param ply   distance from the root, so mate scores can be stored relative to this node
+     * @param move  the best move found, or {@link Moves#NONE}
+     * @param score the score
+     * @param depth the depth searched
+     * @param bound one of {@link #BOUND_EXACT}, {@link #BOUND_LOWER} or {@link #BOUND_UPPER}
+     */
+    public void store(long key, int ply, int move, int score, int depth, int bound) {
+        int slot = slot(key);
+        long oldData = table[slot + 1];
+        long oldKey = table[slot] ^ oldData;
+        int currentAge = age;
+
+        if (oldData != MISS && ageOf(oldData) == currentAge && depthOf(oldData) > depth) {
+            // keep a deeper result from this search unless it can be improved with an exact score
+            if (oldKey != key || bound != BOUND_EXACT) {
+                return;
+            }
+        }
+        int packedMove = move;
+        if (packedMove == Moves.NONE && oldKey == key) {
+            // a fail-low finds no best move; keep the one already known
+            packedMove = moveOf(oldData);
+        }
+
+        if (score >= SearchEngine.MATE - SearchEngine.MAX_PLY) {
+            score += ply;
+        } else if (score <= -SearchEngine.MATE + SearchEngine.MAX_PLY) {
+            score -= ply;
+        }
+        long data = packedMove
+                | ((long) bound << 16)
+                | ((long) Math.min(depth, MAX_STORED_DEPTH) << 18)
+                | ((long) currentAge << 25)
+                | ((long) (score & 0xFFFF) << 32);
+        table[slot] = key ^ data;
+        table[slot + 1] = data;
+    }
+
+    /**
+     * @return roughly how many of each thousand entries were written by the current search
+     */
+    public int hashfull() {
+        int sample = Math.min(1000, capacity());
+        int used = 0;
+        for (int i = 0; i < sample; i++) {
+            long data = table[i * 2 + 1];
+            if (data != MISS && ageOf(data) == age) {
+                used++;
+            }
+        }
+        return used * 1000 / sample;
+    }
+
+    private int slot(long key) {
+        // the low bits pick the slot; the whole key is still checked on probe
+        return ((int) key & indexMask) << 1;
+    }
+
+    public static int moveOf(long data) {
+        return (int) (data & 0xFFFF);
+    }
+
+    public static int boundOf(long data) {
+        return (int) (data >>> 16) & 0x3;
+    }
+
+    public static int depthOf(long data) {
+        return (int) (data >>> 18) & MAX_STORED_DEPTH;
+    }
+
+    static int ageOf(long data) {
+        return (int) (data >>> 25) & AGE_MASK;
+    }
+
+    public static int scoreOf(long data) {
+        return (short) (data >>> 32);
+    }
+}
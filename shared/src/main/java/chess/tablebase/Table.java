@@ -0,0 +1,225 @@
+package chess.tablebase;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One endgame table: a byte for every placement of a fixed set of pieces,
+ * with either side to move.
+ * <p>
+ * Pieces are kept in a fixed order: white king, other white pieces, black
+ * king, other black pieces, each side strongest first. The index is the side
+ * to move, then the white king's square, then every other piece's square.
+ * Without castling the board can be mirrored left to right, so the white king
+ * is always put on files a to d and only half the placements are stored.
+ * <p>
+ * A byte of 0 is a draw and {@link #ILLEGAL} a placement that cannot happen.
+ * Anything else is one more than the number of plies to mate: odd plies mean
+ * the side to move mates, even plies that it is mated.
+ */
+final class Table {
+    static final int DRAW = 0;
+    static final int ILLEGAL = 0xFF;
+    static final int MAX_PLIES = 0xFD;
+
+    private static final int MAGIC = 0x43485442;
+    private static final int HEADER_SIZE = 16;
+    private static final int MAX_PIECES = 4;
+    /** Strongest first, so names read the usual way, like "KQKR" */
+    private static final String ORDER = "KQRBNP";
+    /** Indexed by {@link ChessPiece.PieceType} ordinal */
+    private static final String LETTERS = "KQBNRP";
+
+    private final String name;
+    private final int[] pieces;
+    private final ByteBuffer values;
+    /** Where index 0 is in {@link #values}: past the header for a file, 0 for a table being generated */
+    private final int base;
+
+    private Table(String name, int[] pieces, ByteBuffer values, int base) {
+        this.name = name;
+        this.pieces = pieces;
+        this.values = values;
+        this.base = base;
+    }
+
+    /**
+     * Makes an empty table to generate into
+     */
+    static Table create(String name) {
+        int[] pieces = parse(name);
+        return new Table(name, pieces, ByteBuffer.wrap(new byte[size(pieces.length)]), 0);
+    }
+
+    String name() {
+        return name;
+    }
+
+    /**
+     * @return the piece indices (see {@link ChessBoard#pieceIndex}) in table order
+     */
+    int[] pieces() {
+        return pieces;
+    }
+
+    int size() {
+        return values.capacity() - base;
+    }
+
+    static int size(int pieceCount) {
+        return 2 * 32 << (6 * (pieceCount - 1));
+    }
+
+    int value(int index) {
+        return values.get(base + index) & 0xFF;
+    }
+
+    void set(int index, int value) {
+        values.put(base + index, (byte) value);
+    }
+
+    /**
+     * @param squares the square of each piece, in table order
+     * @return the index of the placement, after mirroring the white king onto files a to d
+     */
+    int index(int[] squares, ChessGame.TeamColor toMove) {
+        int mirror = (squares[0] & 7) >= 4 ? 7 : 0;
+        int king = squares[0] ^ mirror;
+        int index = (toMove.ordinal() << 5) | ((king >>> 3) << 2) | (king & 7);
+        for (int i = 1; i < squares.length; i++) {
+            index = (index << 6) | (squares[i] ^ mirror);
+        }
+        return index;
+    }
+
+    /**
+     * Fills in the squares of the placement at an index, the reverse of
+     * {@link #index}
+     *
+     * @return the side to move
+     */
+    ChessGame.TeamColor decode(int index, int[] squares) {
+        for (int i = squares.length - 1; i >= 1; i--) {
+            squares[i] = index & 63;
+            index >>>= 6;
+        }
+        squares[0] = ((index >>> 2) & 7) << 3 | (index & 3);
+        return ChessGame.TeamColor.values()[index >>> 5];
+    }
+
+    /**
+     * Turns a name like "KRK" or "KBNK" into piece indices in table order
+     *
+     * @throws IllegalArgumentException if it is not two kings and at most two other pieces
+     */
+    static int[] parse(String name) {
+        int blackKing = name.indexOf('K', 1);
+        if (!name.startsWith("K") || blackKing < 0 || name.length() > MAX_PIECES) {
+            throw new IllegalArgumentException("Tablebase names are two kings and at most two other pieces: " + name);
+        }
+        List<Integer> pieces = new ArrayList<>();
+        for (int i = 0; i < name.length(); i++) {
+            int rank = ORDER.indexOf(name.charAt(i));
+            if (rank < 0 || (rank == 0 && i != 0 && i != blackKing)) {
+                throw new IllegalArgumentException("Invalid piece '" + name.charAt(i) + "' in tablebase " + name);
+            }
+            ChessGame.TeamColor color = i < blackKing ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+            pieces.add(ChessBoard.pieceIndex(color, typeOf(rank)));
+        }
+        int[] sorted = pieces.stream().mapToInt(Integer::intValue).toArray();
+        sortByOrder(sorted, new int[sorted.length]);
+        if (!nameOf(sorted).equals(name)) {
+            throw new IllegalArgumentException("Tablebase pieces must be written strongest first: " + name);
+        }
+        return sorted;
+    }
+
+    /**
+     * @param pieces piece indices in table order
+     * @return the table name, such as "KQKR"
+     */
+    static String nameOf(int[] pieces) {
+        StringBuilder name = new StringBuilder(pieces.length);
+        for (int piece : pieces) {
+            name.append(ORDER.charAt(rankOf(piece)));
+        }
+        return name.toString();
+    }
+
+    /**
+     * Sorts pieces into table order, carrying a second array along with them
+     */
+    static void sortByOrder(int[] pieces, int[] along) {
+        for (int i = 1; i < pieces.length; i++) {
+            for (int j = i; j > 0 && sortKey(pieces[j]) < sortKey(pieces[j - 1]); j--) {
+                int piece = pieces[j];
+                pieces[j] = pieces[j - 1];
+                pieces[j - 1] = piece;
+                int other = along[j];
+                along[j] = along[j - 1];
+                along[j - 1] = other;
+            }
+        }
+    }
+
+    private static int sortKey(int piece) {
+        return (piece / 6) * ORDER.length() + rankOf(piece);
+    }
+
+    private static int rankOf(int piece) {
+        return ORDER.indexOf(LETTERS.charAt(piece % 6));
+    }
+
+    private static ChessPiece.PieceType typeOf(int rank) {
+        return ChessPiece.PieceType.values()[LETTERS.indexOf(ORDER.charAt(rank))];
+    }
+
+    /**
+     * Writes the table as a 16-byte header, holding the piece indices, then
+     * one byte per index
+     */
+    void write(Path file) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).put((byte) pieces.length);
+            for (int piece : pieces) {
+                header.put((byte) piece);
+            }
+            out.write(header.array());
+            out.write(values.array(), values.arrayOffset(), values.capacity());
+        }
+    }
+
+    /**
+     * Maps a table file read-only. The mapping stays valid after the channel
+     * is closed, until the table is garbage collected.
+     */
+    static Table open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer values = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (values.capacity() < HEADER_SIZE || values.getInt(0) != MAGIC) {
+                throw new IOException("Not a tablebase file: " + file);
+            }
+            int count = values.get(4);
+            if (count < 2 || count > MAX_PIECES || values.capacity() != HEADER_SIZE + size(count)) {
+                throw new IOException("Tablebase file has the wrong size: " + file);
+            }
+            int[] pieces = new int[count];
+            for (int i = 0; i < count; i++) {
+                pieces[i] = values.get(5 + i);
+            }
+            return new Table(nameOf(pieces), pieces, values, HEADER_SIZE);
+        }
+    }
+}
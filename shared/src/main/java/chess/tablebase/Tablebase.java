@@ -0,0 +1,218 @@
+package chess.tablebase;
+
+import chess.Bitboards;
+import chess.CastlingRights;
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.MoveList;
+import chess.Moves;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Perfect play for endgames of up to four pieces, looked up from tables made
+ * by {@link TablebaseGenerator}.
+ * <p>
+ * Table files are mapped into memory read-only, so opening them costs no
+ * heap and the pages are shared by every process that uses them. A probe is
+ * one read. Each table covers its colors both ways round: KKR is found
+ * by looking up KRK with the board turned over.
+ */
+public final class Tablebase {
+    static final String EXTENSION = ".tb";
+
+    private final Map<String, Table> tables = new ConcurrentHashMap<>();
+
+    /**
+     * Opens every table file in a directory
+     */
+    public static Tablebase open(Path directory) throws IOException {
+        Tablebase tablebase = new Tablebase();
+        if (!Files.isDirectory(directory)) {
+            return tablebase;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            for (Path file : files) {
+                tablebase.add(Table.open(file));
+            }
+        }
+        return tablebase;
+    }
+
+    void add(Table table) {
+        tables.put(table.name(), table);
+    }
+
+    /**
+     * @return the names of the loaded tables, such as "KQK" and "KRKP"
+     */
+    public Set<String> names() {
+        return Set.copyOf(tables.keySet());
+    }
+
+    /**
+     * @return True if the table, or the same table with colors swapped, is loaded
+     */
+    public boolean contains(String name) {
+        return tables.containsKey(name) || tables.containsKey(flippedName(Table.parse(name)));
+    }
+
+    /**
+     * Looks up the game's position
+     *
+     * @return the outcome with best play for the side to move, or null if no
+     * table covers the position. Positions with castling rights or an en
+     * passant capture are never covered.
+     */
+    public Outcome probe(ChessGame game) {
+        if (game.getCastlingRights() != CastlingRights.NONE || game.getEnPassantSquare() != ChessGame.NO_SQUARE) {
+            return null;
+        }
+        ChessBoard board = game.getBoard();
+        long occupied = board.getOccupied();
+        int count = Bitboards.count(occupied);
+        if (count > 4) {
+            return null;
+        }
+        int[] pieces = new int[count];
+        int[] squares = new int[count];
+        int i = 0;
+        for (long rest = occupied; rest != 0; rest &= rest - 1) {
+            int square = Bitboards.first(rest);
+            squares[i] = square;
+            pieces[i] = board.pieceIndexAt(square);
+            i++;
+        }
+        int value = lookup(pieces, squares, game.getTeamTurn());
+        return value < 0 || value == Table.ILLEGAL ? null : Outcome.of(value);
+    }
+
+    /**
+     * Finds the legal move that keeps the best outcome: the quickest mate
+     * when winning, a move that holds the draw, or the longest resistance
+     * when losing
+     *
+     * @return the packed move, or {@link Moves#NONE} if no table covers the position
+     */
+    public int bestMove(ChessGame game) {
+        if (probe(game) == null) {
+            return Moves.NONE;
+        }
+        MoveList legal = new MoveList();
+        game.generateLegalMoves(legal);
+        int best = Moves.NONE;
+        int bestScore = Integer.MIN_VALUE;
+        for (int i = 0; i < legal.size(); i++) {
+            game.doMove(legal.get(i));
+            Outcome reply = probe(game);
+            game.undoMove();
+            if (reply != null && -reply.score() > bestScore) {
+                bestScore = -reply.score();
+                best = legal.get(i);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Looks up a placement in whichever table covers its pieces
+     *
+     * @param pieces  piece indices in any order; they are not changed
+     * @param squares the square of each piece; they are not changed
+     * @return the table's byte for the placement, or -1 if no table covers it
+     */
+    int lookup(int[] pieces, int[] squares, ChessGame.TeamColor toMove) {
+        int[] sortedPieces = pieces.clone();
+        int[] sortedSquares = squares.clone();
+        Table.sortByOrder(sortedPieces, sortedSquares);
+        Table table = tables.get(Table.nameOf(sortedPieces));
+        if (table == null) {
+            // the same ending with the colors swapped: turn the board over and pass the move
+            sortedPieces = flipped(pieces);
+            sortedSquares = squares.clone();
+            for (int i = 0; i < sortedSquares.length; i++) {
+                sortedSquares[i] ^= 56;
+            }
+            Table.sortByOrder(sortedPieces, sortedSquares);
+            table = tables.get(Table.nameOf(sortedPieces));
+            toMove = toMove.other();
+        }
+        if (table == null) {
+            return isDeadDraw(pieces) ? Table.DRAW : -1;
+        }
+        return table.value(table.index(sortedSquares, toMove));
+    }
+
+    /**
+     * @return the pieces with their colors swapped
+     */
+    static int[] flipped(int[] pieces) {
+        int[] flipped = new int[pieces.length];
+        for (int i = 0; i < pieces.length; i++) {
+            flipped[i] = (pieces[i] + 6) % 12;
+        }
+        return flipped;
+    }
+
+    /**
+     * @return the name of the table with the colors swapped, such as "KKR" for "KRK"
+     */
+    static String flippedName(int[] pieces) {
+        int[] flipped = flipped(pieces);
+        Table.sortByOrder(flipped, new int[flipped.length]);
+        return Table.nameOf(flipped);
+    }
+
+    /**
+     * @return True for a bare king against a king with at most one minor
+     * piece, where neither side can ever mate
+     */
+    static boolean isDeadDraw(int[] pieces) {
+        return pieces.length <= 3 && Arrays.stream(pieces).allMatch(piece ->
+                switch (ChessBoard.typeOf(piece)) {
+                    case KING, BISHOP, KNIGHT -> true;
+                    default -> false;
+                });
+    }
+
+    /**
+     * The result of perfect play, for the side to move
+     *
+     * @param result      whether the side to move wins, draws or loses
+     * @param pliesToMate half moves until mate with best play on both sides, or 0 for a draw
+     */
+    public record Outcome(Result result, int pliesToMate) {
+        static Outcome of(int value) {
+            if (value == Table.DRAW) {
+                return new Outcome(Result.DRAW, 0);
+            }
+            int plies = value - 1;
+            return new Outcome(plies % 2 == 1 ? Result.WIN : Result.LOSS, plies);
+        }
+
+        /**
+         * @return a number that is higher the better the outcome is for the
+         * side to move: quick wins first, slow losses last
+         */
+        int score() {
+            return switch (result) {
+                case WIN -> 1000 - pliesToMate;
+                case DRAW -> 0;
+                case LOSS -> pliesToMate - 1000;
+            };
+        }
+    }
+
+    public enum Result {
+        WIN,
+        DRAW,
+        LOSS
+    }
+}
@@ -0,0 +1,324 @@
+package chess.tablebase;
+
+import chess.CastlingRights;
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.MoveList;
+import chess.Moves;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Builds endgame tables by retrograde analysis.
+ * <p>
+ * The first pass finds every mate. Each pass after that resolves the
+ * positions exactly one ply further from mate: pass n marks a position won in
+ * n plies if its quickest move to a lost position reaches one lost in n - 1,
+ * and lost in n if every move reaches a won position and the slowest of those
+ * wins takes n - 1. Moves come from the shared move generator, and captures
+ * and promotions are looked up in the smaller tables, which are built first.
+ * Those values are known from the start, so a position whose best line
+ * converts waits for the pass that matches its length, and a shorter mate
+ * inside the table still finds it first. Whatever is still open once a pass
+ * resolves nothing and no position is waiting is a draw. Each pass only looks
+ * at the positions still open, and splits them across all cores.
+ */
+public final class TablebaseGenerator {
+    /** Every three and four piece ending, stronger side as white, apart from the ones nobody can win */
+    public static final List<String> ALL = List.of(
+            "KQK", "KRK", "KPK",
+            "KQQK", "KQRK", "KQBK", "KQNK", "KQPK", "KRRK", "KRBK", "KRNK", "KRPK",
+            "KBBK", "KBNK", "KBPK", "KNNK", "KNPK", "KPPK",
+            "KQKQ", "KQKR", "KQKB", "KQKN", "KQKP", "KRKR", "KRKB", "KRKN", "KRKP",
+            "KBKB", "KBKN", "KBKP", "KNKN", "KNKP", "KPKP");
+
+    private static final ChessPiece.PieceType[] PROMOTIONS = {
+            ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.ROOK,
+            ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.KNIGHT};
+
+    private final Path directory;
+    private final Tablebase tablebase;
+
+    /**
+     * @param directory where tables are written; tables already there are reused
+     */
+    public TablebaseGenerator(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        this.tablebase = Tablebase.open(directory);
+    }
+
+    public Tablebase tablebase() {
+        return tablebase;
+    }
+
+    /**
+     * Builds a table, and first every smaller table that a capture or
+     * promotion can lead to, unless they are already in the directory
+     *
+     * @param name the pieces, white first, strongest first, such as "KRKP"
+     */
+    public void generate(String name) throws IOException {
+        int[] pieces = Table.parse(name);
+        if (tablebase.contains(name)) {
+            return;
+        }
+        for (int i = 0; i < pieces.length; i++) {
+            if (ChessBoard.typeOf(pieces[i]) != ChessPiece.PieceType.KING) {
+                generateChild(pieces, i, -1, null);
+            }
+            if (ChessBoard.typeOf(pieces[i]) == ChessPiece.PieceType.PAWN) {
+                for (ChessPiece.PieceType promotion : PROMOTIONS) {
+                    generateChild(pieces, -1, i, promotion);
+                    for (int captured = 0; captured < pieces.length; captured++) {
+                        if (pieces[captured] / 6 != pieces[i] / 6
+                                && ChessBoard.typeOf(pieces[captured]) != ChessPiece.PieceType.KING) {
+                            generateChild(pieces, captured, i, promotion);
+                        }
+                    }
+                }
+            }
+        }
+
+        Table table = Table.create(name);
+        build(table);
+        table.write(directory.resolve(name + Tablebase.EXTENSION));
+        tablebase.add(table);
+    }
+
+    /**
+     * Generates the table for the pieces left after one is captured and/or
+     * one is promoted
+     */
+    private void generateChild(int[] pieces, int captured, int promoted, ChessPiece.PieceType promotion)
+            throws IOException {
+        int[] child = new int[pieces.length - (captured >= 0 ? 1 : 0)];
+        int length = 0;
+        for (int i = 0; i < pieces.length; i++) {
+            if (i == captured) {
+                continue;
+            }
+            child[length++] = i == promoted
+                    ? ChessBoard.pieceIndex(ChessBoard.colorOf(pieces[i]), promotion) : pieces[i];
+        }
+        if (Tablebase.isDeadDraw(child)) {
+            return;
+        }
+        Table.sortByOrder(child, new int[child.length]);
+        // name the ending after its stronger side, so each is built once whichever way round it is reached
+        String flippedName = Tablebase.flippedName(child);
+        generate(ALL.contains(flippedName) ? flippedName : Table.nameOf(child));
+    }
+
+    private void build(Table table) {
+        ThreadLocal<Worker> workers = ThreadLocal.withInitial(() -> new Worker(table, tablebase));
+        int[] open = IntStream.range(0, table.size()).parallel()
+                .filter(index -> workers.get().initialize(index))
+                .toArray();
+        for (int plies = 1; open.length > 0; plies++) {
+            // work out the whole pass before writing any of it, so every position
+            // resolved in pass n is exactly n plies from mate
+            int[] pass = open;
+            int distance = plies;
+            int[] resolved = IntStream.of(pass).parallel()
+                    .map(index -> workers.get().resolve(index, distance))
+                    .toArray();
+            IntStream.range(0, pass.length).parallel()
+                    .filter(i -> resolved[i] > 0)
+                    .forEach(i -> table.set(pass[i], resolved[i]));
+            open = IntStream.range(0, pass.length)
+                    .filter(i -> resolved[i] <= 0)
+                    .map(i -> pass[i])
+                    .toArray();
+            boolean waiting = IntStream.of(resolved).anyMatch(value -> value == Worker.WAITING);
+            if (open.length == pass.length && !waiting) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * One thread's board and scratch space
+     */
+    private static final class Worker {
+        /** From {@link #resolve}: decided, but by a capture or promotion line longer than this pass */
+        static final int WAITING = -1;
+
+        private final Table table;
+        private final Tablebase tablebase;
+        private final int[] pieces;
+        private final int[] squares;
+        private final int[] childSquares;
+        private final ChessBoard board = new ChessBoard();
+        private final ChessGame game = new ChessGame();
+        private final MoveList moves = new MoveList();
+        private ChessGame.TeamColor toMove;
+
+        Worker(Table table, Tablebase tablebase) {
+            this.table = table;
+            this.tablebase = tablebase;
+            this.pieces = table.pieces();
+            this.squares = new int[pieces.length];
+            this.childSquares = new int[pieces.length];
+            game.setBoard(board);
+        }
+
+        /**
+         * Marks mates and placements that cannot happen
+         *
+         * @return True if the position still has to be worked out
+         */
+        boolean initialize(int index) {
+            if (!setUp(index)) {
+                table.set(index, Table.ILLEGAL);
+                return false;
+            }
+            game.generateLegalMoves(moves);
+            if (moves.isEmpty()) {
+                // mated now, or stalemate, which stays a draw
+                if (game.isInCheck(toMove)) {
+                    table.set(index, 1);
+                }
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * @param plies the distance to mate this pass resolves
+         * @return the table byte if the position is decided in exactly that
+         * many plies, {@link #WAITING} if its moves already decide it in more,
+         * or {@link Table#DRAW} if it is still open
+         */
+        int resolve(int index, int plies) {
+            setUp(index);
+            game.generateLegalMoves(moves);
+            int quickestWin = Integer.MAX_VALUE;
+            int slowestLoss = 0;
+            boolean allLose = true;
+            for (int i = 0; i < moves.size(); i++) {
+                int value = childValue(moves.get(i));
+                if (value == Table.DRAW) {
+                    allLose = false;
+                    continue;
+                }
+                // the child's plies to mate are value - 1, so ours through this move are value
+                if (value % 2 == 1) {
+                    quickestWin = Math.min(quickestWin, value);
+                } else {
+                    slowestLoss = Math.max(slowestLoss, value);
+                }
+            }
+            int decided;
+            if (quickestWin != Integer.MAX_VALUE) {
+                decided = quickestWin;
+            } else if (allLose) {
+                decided = slowestLoss;
+            } else {
+                return Table.DRAW;
+            }
+            if (decided > plies) {
+                return WAITING;
+            }
+            if (plies > Table.MAX_PLIES) {
+                throw new IllegalStateException("Mate in more than " + Table.MAX_PLIES + " plies in " + table.name());
+            }
+            return plies + 1;
+        }
+
+        /**
+         * @return the table byte of the position after a move
+         */
+        private int childValue(int move) {
+            int from = Moves.from(move);
+            int to = Moves.to(move);
+            int moved = -1;
+            int captured = -1;
+            for (int i = 0; i < squares.length; i++) {
+                if (squares[i] == from) {
+                    moved = i;
+                } else if (squares[i] == to) {
+                    captured = i;
+                }
+            }
+            if (captured < 0 && !Moves.isPromotion(move)) {
+                System.arraycopy(squares, 0, childSquares, 0, squares.length);
+                childSquares[moved] = to;
+                return table.value(table.index(childSquares, toMove.other()));
+            }
+
+            int length = squares.length - (captured >= 0 ? 1 : 0);
+            int[] childPieces = new int[length];
+            int[] childAt = new int[length];
+            int next = 0;
+            for (int i = 0; i < squares.length; i++) {
+                if (i == captured) {
+                    continue;
+                }
+                childPieces[next] = i == moved && Moves.isPromotion(move)
+                        ? ChessBoard.pieceIndex(toMove, Moves.promotion(move)) : pieces[i];
+                childAt[next++] = i == moved ? to : squares[i];
+            }
+            int value = tablebase.lookup(childPieces, childAt, toMove.other());
+            if (value < 0) {
+                throw new IllegalStateException("No table for the pieces after " + Moves.toString(move)
+                        + " in " + table.name());
+            }
+            return value;
+        }
+
+        /**
+         * Puts the placement at an index on the board
+         *
+         * @return False if it cannot happen: two pieces on one square, a pawn
+         * on the first or last rank, or the side not to move in check
+         */
+        private boolean setUp(int index) {
+            for (int square : squares) {
+                board.addPiece(ChessPosition.ofSquare(square), null);
+            }
+            toMove = table.decode(index, squares);
+            long occupied = 0;
+            for (int i = 0; i < squares.length; i++) {
+                long bit = 1L << squares[i];
+                boolean backRank = squares[i] < 8 || squares[i] >= 56;
+                if ((occupied & bit) != 0 || (backRank && ChessBoard.typeOf(pieces[i]) == ChessPiece.PieceType.PAWN)) {
+                    return false;
+                }
+                occupied |= bit;
+            }
+            for (int i = 0; i < squares.length; i++) {
+                board.addPiece(ChessPosition.ofSquare(squares[i]),
+                        ChessPiece.of(ChessBoard.colorOf(pieces[i]), ChessBoard.typeOf(pieces[i])));
+            }
+            game.setTeamTurn(toMove);
+            game.setCastlingRights(CastlingRights.NONE);
+            game.setEnPassantSquare(ChessGame.NO_SQUARE);
+            return !game.isInCheck(toMove.other());
+        }
+    }
+
+    /**
+     * Builds tables into a directory: the ones named, or every three and four
+     * piece ending
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage: TablebaseGenerator <directory> [KQK KRKP ...]");
+            return;
+        }
+        TablebaseGenerator generator = new TablebaseGenerator(Path.of(args[0]));
+        List<String> names = args.length > 1 ? List.of(args).subList(1, args.length) : ALL;
+        for (String name : names) {
+            long start = System.nanoTime();
+            generator.generate(name);
+            System.out.printf("%s done after %.1f s%n", name, (System.nanoTime() - start) / 1e9);
+        }
+    }
+}
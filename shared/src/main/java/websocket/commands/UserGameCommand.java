@@ -28,7 +28,8 @@ public class UserGameCommand {
         CONNECT,
         MAKE_MOVE,
         LEAVE,
-        RESIGN
+        RESIGN,
+        CLAIM_DRAW
     }
 
     public CommandType getCommandType() {
@@ -112,4 +113,10 @@ public class UserGameCommand {
             super(CommandType.RESIGN, authToken, gameID);
         }
     }
+
+    public static class ClaimDrawCommand extends UserGameCommand {
+        public ClaimDrawCommand(String authToken, Integer gameID) {
+            super(CommandType.CLAIM_DRAW, authToken, gameID);
+        }
+    }
 }
@@ -22,6 +22,7 @@ public class GsonFactory {
                         case MAKE_MOVE -> context.deserialize(object, UserGameCommand.MakeMoveCommand.class);
                         case LEAVE     -> context.deserialize(object, UserGameCommand.LeaveCommand.class);
                         case RESIGN    -> context.deserialize(object, UserGameCommand.ResignCommand.class);
+                        case CLAIM_DRAW -> context.deserialize(object, UserGameCommand.ClaimDrawCommand.class);
                     };
                 });
 
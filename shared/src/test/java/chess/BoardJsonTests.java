@@ -0,0 +1,60 @@
+package chess;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class BoardJsonTests {
+
+    /** A game after 1. e4 as the array-backed board used to save it */
+    private static final String LEGACY_GAME = """
+            {"board":{"board":[
+            [{"pieceColor":"WHITE","type":"ROOK"},{"pieceColor":"WHITE","type":"KNIGHT"},{"pieceColor":"WHITE","type":"BISHOP"},{"pieceColor":"WHITE","type":"QUEEN"},{"pieceColor":"WHITE","type":"KING"},{"pieceColor":"WHITE","type":"BISHOP"},{"pieceColor":"WHITE","type":"KNIGHT"},{"pieceColor":"WHITE","type":"ROOK"}],
+            [{"pieceColor":"WHITE","type":"PAWN"},{"pieceColor":"WHITE","type":"PAWN"},{"pieceColor":"WHITE","type":"PAWN"},{"pieceColor":"WHITE","type":"PAWN"},null,{"pieceColor":"WHITE","type":"PAWN"},{"pieceColor":"WHITE","type":"PAWN"},{"pieceColor":"WHITE","type":"PAWN"}],
+            [null,null,null,null,null,null,null,null],
+            [null,null,null,null,{"pieceColor":"WHITE","type":"PAWN"},null,null,null],
+            [null,null,null,null,null,null,null,null],
+            [null,null,null,null,null,null,null,null],
+            [{"pieceColor":"BLACK","type":"PAWN"},{"pieceColor":"BLACK","type":"PAWN"},{"pieceColor":"BLACK","type":"PAWN"},{"pieceColor":"BLACK","type":"PAWN"},{"pieceColor":"BLACK","type":"PAWN"},{"pieceColor":"BLACK","type":"PAWN"},{"pieceColor":"BLACK","type":"PAWN"},{"pieceColor":"BLACK","type":"PAWN"}],
+            [{"pieceColor":"BLACK","type":"ROOK"},{"pieceColor":"BLACK","type":"KNIGHT"},{"pieceColor":"BLACK","type":"BISHOP"},{"pieceColor":"BLACK","type":"QUEEN"},{"pieceColor":"BLACK","type":"KING"},{"pieceColor":"BLACK","type":"BISHOP"},{"pieceColor":"BLACK","type":"KNIGHT"},{"pieceColor":"BLACK","type":"ROOK"}]
+            ]},"team":"BLACK","gameOver":false}
+            """;
+
+    private static final String AFTER_E4 = "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1";
+
+    @Test
+    @DisplayName("A game saved with the array-backed board loads with its pieces")
+    public void loadsLegacyGame() throws InvalidMoveException {
+        ChessGame game = new Gson().fromJson(LEGACY_GAME, ChessGame.class);
+        ChessBoard expected = ChessGame.fromFen(AFTER_E4).getBoard();
+        Assertions.assertEquals(expected, game.getBoard());
+        Assertions.assertEquals(expected.getKey(), game.getBoard().getKey());
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, game.getTeamTurn());
+
+        game.makeMove(new ChessMove(ChessPosition.of(7, 5), ChessPosition.of(5, 5), null));
+        Assertions.assertNotNull(game.getBoard().getPiece(ChessPosition.of(5, 5)));
+    }
+
+    @Test
+    @DisplayName("Boards are still written as an 8x8 array")
+    public void writesArrayShape() {
+        Gson gson = new Gson();
+        ChessGame game = ChessGame.fromFen(AFTER_E4);
+        JsonObject board = gson.toJsonTree(game).getAsJsonObject().getAsJsonObject("board");
+        Assertions.assertEquals(1, board.size());
+        Assertions.assertEquals(8, board.getAsJsonArray("board").size());
+        Assertions.assertTrue(board.getAsJsonArray("board").get(1).getAsJsonArray().get(4).isJsonNull());
+
+        Assertions.assertEquals(game.getBoard(), gson.fromJson(gson.toJson(game), ChessGame.class).getBoard());
+    }
+
+    @Test
+    @DisplayName("A board with no pieces field is rejected instead of loading empty")
+    public void rejectsUnknownShape() {
+        Assertions.assertThrows(JsonParseException.class,
+                () -> new Gson().fromJson("{\"board\":{\"squares\":[]},\"team\":\"WHITE\"}", ChessGame.class));
+    }
+}
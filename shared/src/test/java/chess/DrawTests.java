@@ -0,0 +1,78 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class DrawTests {
+
+    private static ChessMove move(String coordinates) {
+        return new ChessMove(ChessPosition.fromAlgebraic(coordinates.substring(0, 2)),
+                ChessPosition.fromAlgebraic(coordinates.substring(2, 4)), null);
+    }
+
+    private static void shuffleKnights(ChessGame game) throws InvalidMoveException {
+        for (String coordinates : new String[]{"g1f3", "g8f6", "f3g1", "f6g8"}) {
+            game.makeMove(move(coordinates));
+        }
+    }
+
+    @Test
+    @DisplayName("Threefold repetition is found after the third occurrence")
+    public void threefoldRepetition() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        shuffleKnights(game);
+        Assertions.assertEquals(2, game.repetitions());
+        Assertions.assertNull(game.getDrawClaim());
+
+        shuffleKnights(game);
+        Assertions.assertEquals(3, game.repetitions());
+        Assertions.assertEquals(ChessGame.DrawReason.THREEFOLD_REPETITION, game.getDrawClaim());
+    }
+
+    @Test
+    @DisplayName("A pawn move cuts off the history before it")
+    public void pawnMoveResetsHistory() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        shuffleKnights(game);
+        game.makeMove(move("e2e4"));
+        game.makeMove(move("e7e5"));
+        Assertions.assertEquals(0, game.getHalfmoveClock());
+        shuffleKnights(game);
+        Assertions.assertEquals(2, game.repetitions());
+    }
+
+    @Test
+    @DisplayName("Fifty moves without a capture or pawn move is a draw")
+    public void fiftyMoveRule() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.setHalfmoveClock(99);
+        game.makeMove(move("g1f3"));
+        Assertions.assertEquals(ChessGame.DrawReason.FIFTY_MOVE_RULE, game.getDrawClaim());
+    }
+
+    @Test
+    @DisplayName("Undo restores the clock and history")
+    public void undoRestoresClock() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        shuffleKnights(game);
+        int clock = game.getHalfmoveClock();
+        game.doMove(move("e2e4"));
+        Assertions.assertEquals(0, game.getHalfmoveClock());
+        game.undoMove();
+        Assertions.assertEquals(clock, game.getHalfmoveClock());
+        Assertions.assertEquals(2, game.repetitions());
+    }
+
+    @Test
+    @DisplayName("The history survives a Gson round trip")
+    public void historyIsPersisted() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        shuffleKnights(game);
+        Gson gson = new Gson();
+        ChessGame read = gson.fromJson(gson.toJson(game), ChessGame.class);
+        shuffleKnights(read);
+        Assertions.assertEquals(ChessGame.DrawReason.THREEFOLD_REPETITION, read.getDrawClaim());
+    }
+}
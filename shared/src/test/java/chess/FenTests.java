@@ -0,0 +1,60 @@
+package chess;
+
+import chess.perft.PerftPosition;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class FenTests {
+
+    @Test
+    @DisplayName("Reference positions survive a round trip")
+    public void roundTrip() {
+        for (PerftPosition position : PerftPosition.REFERENCE_POSITIONS) {
+            Assertions.assertEquals(position.fen(), ChessGame.fromFen(position.fen()).toFen(), position.name());
+        }
+        Assertions.assertEquals(PerftPosition.START_FEN, new ChessGame().toFen());
+        Assertions.assertEquals(new ChessGame(), ChessGame.fromFen(PerftPosition.START_FEN));
+    }
+
+    @Test
+    @DisplayName("Moves bring the clocks, rights and en passant square up to date")
+    public void followsMoves() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/5p2/8/4P3/R3K2R w KQ - 7 30");
+        game.makeMove(new ChessMove(ChessPosition.fromAlgebraic("e2"), ChessPosition.fromAlgebraic("e4"), null));
+        Assertions.assertEquals("4k3/8/8/8/4Pp2/8/8/R3K2R b KQ e3 0 30", game.toFen());
+
+        game.makeMove(new ChessMove(ChessPosition.fromAlgebraic("e8"), ChessPosition.fromAlgebraic("d8"), null));
+        Assertions.assertEquals("3k4/8/8/8/4Pp2/8/8/R3K2R w KQ - 1 31", game.toFen());
+
+        game.makeMove(new ChessMove(ChessPosition.fromAlgebraic("h1"), ChessPosition.fromAlgebraic("h8"), null));
+        Assertions.assertEquals("3k3R/8/8/8/4Pp2/8/8/R3K3 b Q - 2 31", game.toFen());
+    }
+
+    @Test
+    @DisplayName("Clock fields are optional and extra spaces are allowed")
+    public void lenientFields() {
+        ChessGame game = ChessGame.fromFen("  8/8/4k3/8/8/3K4/8/8   b -  -  ");
+        Assertions.assertEquals("8/8/4k3/8/8/3K4/8/8 b - - 0 1", game.toFen());
+    }
+
+    @Test
+    @DisplayName("Malformed records are rejected")
+    public void rejectsMalformed() {
+        String[] malformed = {
+                "",
+                "8/8/8/8/8/8/8 w - - 0 1",
+                "9/8/8/8/8/8/8/8 w - - 0 1",
+                "8/8/8/8/8/8/8/7x w - - 0 1",
+                "8/8/8/8/8/8/8/8/8 w - - 0 1",
+                "8/8/8/8/8/8/8/8 x - - 0 1",
+                "8/8/8/8/8/8/8/8 w KX - 0 1",
+                "8/8/8/8/8/8/8/8 w - e4 0 1",
+                "8/8/8/8/8/8/8/8 w - - zero 1",
+                "8/8/8/8/8/8/8/8 w - - 0 1 extra",
+        };
+        for (String fen : malformed) {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen(fen), fen);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class FlyweightTests {
+
+    @Test
+    @DisplayName("Positions and pieces are shared instances")
+    public void sharesInstances() {
+        Assertions.assertSame(ChessPosition.of(2, 5), ChessPosition.of(2, 5));
+        Assertions.assertSame(ChessPosition.of(2, 5), ChessPosition.fromAlgebraic("e2"));
+        Assertions.assertEquals(new ChessPosition(9, 1), ChessPosition.of(9, 1));
+
+        ChessPiece knight = ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
+        Assertions.assertSame(knight, ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
+        Assertions.assertSame(knight, new ChessBoard().makePiece(ChessPiece.PieceType.KNIGHT, ChessGame.TeamColor.BLACK));
+
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+        Assertions.assertSame(knight, board.getPiece(ChessPosition.of(8, 2)));
+        for (ChessMove move : new ChessGame().validMoves(ChessPosition.of(2, 5))) {
+            Assertions.assertSame(ChessPosition.of(2, 5), move.getStartPosition());
+        }
+    }
+
+    @Test
+    @DisplayName("Gson keeps the JSON shape and reads back shared instances")
+    public void gsonRoundTrip() {
+        Gson gson = new Gson();
+        ChessMove move = new ChessMove(new ChessPosition(7, 1), new ChessPosition(8, 1), ChessPiece.PieceType.QUEEN);
+        String json = gson.toJson(move);
+        Assertions.assertEquals(
+                "{\"startPosition\":{\"row\":7,\"col\":1},\"endPosition\":{\"row\":8,\"col\":1},\"promotionPiece\":\"QUEEN\"}",
+                json);
+
+        ChessMove read = gson.fromJson(json, ChessMove.class);
+        Assertions.assertEquals(move, read);
+        Assertions.assertSame(ChessPosition.of(7, 1), read.getStartPosition());
+
+        ChessPiece pawn = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
+        Assertions.assertEquals("{\"pieceColor\":\"WHITE\",\"type\":\"PAWN\"}", gson.toJson(pawn));
+        Assertions.assertSame(pawn, gson.fromJson("{\"pieceColor\":\"WHITE\",\"type\":\"PAWN\"}", ChessPiece.class));
+    }
+}
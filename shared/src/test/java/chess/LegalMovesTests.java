@@ -0,0 +1,62 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+
+public class LegalMovesTests {
+
+    private static ChessMove move(String coordinates) {
+        return new ChessMove(ChessPosition.fromAlgebraic(coordinates.substring(0, 2)),
+                ChessPosition.fromAlgebraic(coordinates.substring(2, 4)), null);
+    }
+
+    @Test
+    @DisplayName("Legal moves are reused until the position changes")
+    public void cachedPerPosition() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        LegalMoves start = game.legalMoves();
+        Assertions.assertSame(start, game.legalMoves());
+        Assertions.assertEquals(20, start.size());
+
+        game.makeMove(move("e2e4"));
+        LegalMoves reply = game.legalMoves();
+        Assertions.assertNotSame(start, reply);
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, reply.team());
+        Assertions.assertEquals(game.positionKey(), reply.key());
+
+        game.doMove(reply.get(0));
+        game.undoMove();
+        Assertions.assertSame(reply, game.legalMoves());
+    }
+
+    @Test
+    @DisplayName("Changing the listed moves leaves the shared snapshot alone")
+    public void snapshotIsReadOnly() {
+        LegalMoves start = new ChessGame().legalMoves();
+        MoveList moves = start.moves();
+        moves.clear();
+        moves.add(Moves.NONE);
+        Assertions.assertEquals(20, start.size());
+        Assertions.assertEquals(20, start.moves().size());
+        Assertions.assertFalse(start.contains(Moves.NONE));
+    }
+
+    @Test
+    @DisplayName("Check, mate and piece moves come from one snapshot")
+    public void answersFromSnapshot() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("rnbqkbnr/pppp1ppp/8/4p3/6P1/5P2/PPPPP2P/RNBQKBNR b KQkq - 0 2");
+        Collection<ChessMove> queenMoves = game.validMoves(ChessPosition.fromAlgebraic("d8"));
+        Assertions.assertTrue(queenMoves.contains(move("d8h4")));
+
+        game.makeMove(move("d8h4"));
+        LegalMoves moves = game.legalMoves();
+        Assertions.assertTrue(moves.isCheck());
+        Assertions.assertTrue(moves.isCheckmate());
+        Assertions.assertFalse(moves.isStalemate());
+        Assertions.assertTrue(game.isInCheckmate(ChessGame.TeamColor.WHITE));
+        Assertions.assertTrue(game.validMoves(ChessPosition.fromAlgebraic("e1")).isEmpty());
+    }
+}
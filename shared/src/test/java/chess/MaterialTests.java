@@ -0,0 +1,52 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class MaterialTests {
+
+    private static boolean insufficient(String fen) {
+        return ChessGame.fromFen(fen).isInsufficientMaterial();
+    }
+
+    @Test
+    @DisplayName("Material that can never mate is recognised")
+    public void insufficientMaterial() {
+        Assertions.assertTrue(insufficient("8/8/4k3/8/8/3K4/8/8 w - - 0 1"));
+        Assertions.assertTrue(insufficient("8/8/4k3/8/8/3K4/8/6N1 w - - 0 1"));
+        Assertions.assertTrue(insufficient("8/8/4k3/8/8/3K4/8/5B2 w - - 0 1"));
+        // bishops on the same colour, whoever owns them
+        Assertions.assertTrue(insufficient("8/8/4k3/8/2b5/3K4/8/5B2 w - - 0 1"));
+        Assertions.assertFalse(insufficient("8/8/4kb2/8/8/3K4/8/5B2 w - - 0 1"));
+
+        Assertions.assertFalse(insufficient("8/8/4k3/8/8/3K4/8/5NN1 w - - 0 1"));
+        Assertions.assertFalse(insufficient("8/8/4k3/8/8/3K4/8/4BN2 w - - 0 1"));
+        Assertions.assertFalse(insufficient("8/8/4k3/8/8/3K4/7P/8 w - - 0 1"));
+        Assertions.assertFalse(insufficient("8/8/4k3/8/8/3K4/8/7R w - - 0 1"));
+        Assertions.assertFalse(new ChessGame().isInsufficientMaterial());
+    }
+
+    @Test
+    @DisplayName("The signature follows captures, promotions and undo")
+    public void signatureIsIncremental() {
+        ChessGame game = ChessGame.fromFen("4k3/1P6/8/8/8/8/8/4K1n1 w - - 0 1");
+        long before = game.getBoard().getMaterialKey();
+        Assertions.assertEquals(1, Material.count(before, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+        Assertions.assertEquals(1, Material.count(before, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
+
+        game.doMove(new ChessMove(ChessPosition.of(7, 2), ChessPosition.of(8, 2), ChessPiece.PieceType.BISHOP));
+        long after = game.getBoard().getMaterialKey();
+        Assertions.assertEquals(0, Material.count(after, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+        Assertions.assertEquals(1, Material.count(after, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
+
+        ChessBoard rebuilt = new ChessBoard();
+        for (int square = 0; square < 64; square++) {
+            rebuilt.addPiece(ChessPosition.ofSquare(square), game.getBoard().getPiece(square));
+        }
+        Assertions.assertEquals(rebuilt.getMaterialKey(), after);
+
+        game.undoMove();
+        Assertions.assertEquals(before, game.getBoard().getMaterialKey());
+    }
+}
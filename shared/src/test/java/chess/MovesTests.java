@@ -0,0 +1,73 @@
+package chess;
+
+import chess.perft.PerftPosition;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class MovesTests {
+
+    @Test
+    @DisplayName("Packed moves round trip through ChessMove")
+    public void roundTrips() {
+        ChessGame game = ChessGame.fromFen("4k3/1P6/8/8/8/8/4P3/4K3 w - - 0 1");
+        MoveList moves = new MoveList();
+        game.generateLegalMoves(moves);
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            Assertions.assertEquals(move, Moves.of(Moves.toChessMove(move), game.getBoard()), Moves.toString(move));
+        }
+        Assertions.assertTrue(moves.contains(Moves.encode(12, 28, Moves.DOUBLE_PUSH)));
+        Assertions.assertTrue(moves.contains(Moves.encode(49, 57, Moves.promotionFlags(ChessPiece.PieceType.QUEEN))));
+        Assertions.assertEquals("b7b8q", Moves.toString(Moves.encode(49, 57, Moves.promotionFlags(ChessPiece.PieceType.QUEEN))));
+    }
+
+    @Test
+    @DisplayName("Adding past the capacity fails with a clear message")
+    public void rejectsOverflow() {
+        MoveList moves = new MoveList();
+        for (int i = 0; i < MoveList.CAPACITY; i++) {
+            moves.add(Moves.encode(12, 28, Moves.DOUBLE_PUSH));
+        }
+        IllegalStateException error = Assertions.assertThrows(IllegalStateException.class,
+                () -> moves.add(Moves.encode(12, 28, Moves.DOUBLE_PUSH)));
+        Assertions.assertTrue(error.getMessage().contains("full"));
+        Assertions.assertEquals(MoveList.CAPACITY, moves.size());
+    }
+
+    @Test
+    @DisplayName("Packed generation lists the same moves as allLegalMoves")
+    public void matchesBoxedGeneration() {
+        Random random = new Random(14);
+        MoveList packed = new MoveList();
+        for (int gameNumber = 0; gameNumber < 50; gameNumber++) {
+            ChessGame game = ChessGame.fromFen(PerftPosition.START_FEN);
+            for (int ply = 0; ply < 80; ply++) {
+                List<ChessMove> boxed = new ArrayList<>(game.allLegalMoves(game.getTeamTurn()));
+                game.generateLegalMoves(packed);
+
+                Set<ChessMove> unpacked = new HashSet<>();
+                for (int i = 0; i < packed.size(); i++) {
+                    int move = packed.get(i);
+                    unpacked.add(Moves.toChessMove(move));
+                    boolean capture = game.getBoard().getPiece(Moves.to(move)) != null
+                            || Moves.flags(move) == Moves.EN_PASSANT;
+                    Assertions.assertEquals(capture, Moves.isCapture(move), Moves.toString(move));
+                }
+                Assertions.assertEquals(new HashSet<>(boxed), unpacked);
+                Assertions.assertEquals(boxed.size(), packed.size());
+
+                if (boxed.isEmpty()) {
+                    break;
+                }
+                game.doMove(packed.get(random.nextInt(packed.size())));
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package chess.analysis;
+
+import chess.ChessGame;
+import chess.perft.PerftPosition;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+public class BulkAnalyzerTests {
+
+    private static final String FOOLS_MATE = "rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w - - 1 3";
+    private static final String STALEMATE = "7k/5Q2/6K1/8/8/8/8/8 b - - 0 1";
+
+    @Test
+    @DisplayName("Reports come back in stream order with the right verdicts")
+    public void analyzesPositionsInOrder() {
+        BulkAnalyzer analyzer = new BulkAnalyzer(new ForkJoinPool(2), 2);
+        List<PositionReport> reports = analyzer.analyze(
+                Stream.of(PerftPosition.START_FEN, FOOLS_MATE, STALEMATE).map(ChessGame::fromFen));
+
+        Assertions.assertEquals(3, reports.size());
+
+        PositionReport start = reports.get(0);
+        Assertions.assertEquals(20, start.legalMoves());
+        Assertions.assertEquals(400, start.perftNodes());
+        Assertions.assertFalse(start.inCheck());
+
+        PositionReport mate = reports.get(1);
+        Assertions.assertTrue(mate.checkmate());
+        Assertions.assertEquals(ChessGame.TeamColor.WHITE, mate.sideToMove());
+
+        PositionReport stalemate = reports.get(2);
+        Assertions.assertTrue(stalemate.stalemate());
+        Assertions.assertFalse(stalemate.checkmate());
+    }
+}
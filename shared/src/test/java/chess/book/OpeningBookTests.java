@@ -0,0 +1,111 @@
+package chess.book;
+
+import chess.ChessGame;
+import chess.MoveList;
+import chess.Moves;
+import chess.notation.PgnGame;
+import chess.notation.PgnReader;
+import chess.notation.San;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+public class OpeningBookTests {
+
+    private static final String GAMES = """
+            [Result "1-0"]
+
+            1. e4 e5 2. Nf3 Nc6 3. Bb5 a6 1-0
+
+            [Result "1/2-1/2"]
+
+            1. e4 c5 2. Nf3 d6 1/2-1/2
+
+            [Result "0-1"]
+
+            1. d4 Nf6 2. c4 e6 0-1
+
+            [Result "1-0"]
+
+            1. e4 e5 2. Nf3 Nf6 3. Nxe5 d6 4. Nf3 Nxe4 5. d3 Nf6 6. d4 Be7 7. Bd3 O-O 8. O-O c5 1-0
+            """;
+
+    private static Path writeBook(Path directory, int plies) throws IOException {
+        BookWriter writer = new BookWriter();
+        try (PgnReader reader = new PgnReader(new ByteArrayInputStream(GAMES.getBytes(StandardCharsets.UTF_8)))) {
+            for (PgnGame game = reader.next(); game != null; game = reader.next()) {
+                writer.addGame(game, plies);
+            }
+        }
+        Path file = directory.resolve("book.bin");
+        writer.write(file);
+        return file;
+    }
+
+    private static List<String> sanOf(ChessGame game, List<BookMove> moves) {
+        MoveList legal = new MoveList();
+        game.generateLegalMoves(legal);
+        return moves.stream().map(move -> San.format(game, move.move(), legal)).toList();
+    }
+
+    @Test
+    @DisplayName("Moves are weighted by result and listed heaviest first")
+    public void weightsByResult(@TempDir Path directory) throws IOException {
+        try (OpeningBook book = OpeningBook.open(writeBook(directory, 16))) {
+            Assertions.assertEquals(0, Files.size(directory.resolve("book.bin")) % 16);
+
+            ChessGame game = new ChessGame();
+            List<BookMove> moves = book.moves(game);
+            // two wins and a draw for e4; d4 lost, so it carries no weight
+            Assertions.assertEquals(List.of("e4"), sanOf(game, moves));
+            Assertions.assertEquals(5, moves.getFirst().weight());
+
+            game.doMove(moves.getFirst().move());
+            Assertions.assertEquals(List.of("c5"), sanOf(game, book.moves(game)));
+        }
+    }
+
+    @Test
+    @DisplayName("Castling is found through the king-takes-rook encoding")
+    public void castling(@TempDir Path directory) throws IOException {
+        try (OpeningBook book = OpeningBook.open(writeBook(directory, 16))) {
+            ChessGame game = ChessGame.fromFen("rnbq1rk1/ppp1bppp/3p1n2/8/3P4/3B1N2/PPP2PPP/RNBQK2R w KQ - 3 8");
+            List<BookMove> moves = book.moves(game);
+            Assertions.assertEquals(1, moves.size());
+            Assertions.assertEquals(Moves.KING_CASTLE, Moves.flags(moves.getFirst().move()));
+            Assertions.assertEquals(moves.getFirst().move(), book.pick(game, new Random(1)));
+        }
+    }
+
+    @Test
+    @DisplayName("Positions outside the book have no moves")
+    public void missingPosition(@TempDir Path directory) throws IOException {
+        try (OpeningBook book = OpeningBook.open(writeBook(directory, 2))) {
+            ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/8/8/4K3 w - - 0 1");
+            Assertions.assertTrue(book.moves(game).isEmpty());
+            Assertions.assertEquals(Moves.NONE, book.pick(game, new Random(1)));
+
+            ChessGame deeper = new ChessGame();
+            deeper.doMove(book.moves(deeper).getFirst().move());
+            deeper.doMove(book.moves(deeper).getFirst().move());
+            Assertions.assertTrue(book.moves(deeper).isEmpty(), "only two plies were added");
+        }
+    }
+
+    @Test
+    @DisplayName("A file that is not whole records is rejected")
+    public void rejectsTruncatedFile(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("broken.bin");
+        Files.write(file, new byte[20]);
+        Assertions.assertThrows(IOException.class, () -> OpeningBook.open(file));
+    }
+}
@@ -0,0 +1,149 @@
+package chess.notation;
+
+import chess.ChessGame;
+import chess.MoveList;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class PgnTests {
+
+    private static final String OPERA_GAME = """
+            [Event "Paris"]
+            [Site "Paris FRA"]
+            [Date "1858.??.??"]
+            [Round "?"]
+            [White "Paul Morphy"]
+            [Black "Duke Karl / Count Isouard"]
+            [Result "1-0"]
+
+            1. e4 e5 2. Nf3 d6 3. d4 Bg4 4. dxe5 Bxf3 5. Qxf3 dxe5 6. Bc4 Nf6 7. Qb3 Qe7 8.
+            Nc3 c6 9. Bg5 b5 10. Nxb5 cxb5 11. Bxb5+ Nbd7 12. O-O-O Rd8 13. Rxd7 Rxd7 14.
+            Rd1 Qe6 15. Bxd7+ Nxd7 16. Qb8+ Nxb8 17. Rd8# 1-0
+
+            """;
+
+    private static List<PgnGame> readAll(String pgn) throws IOException {
+        List<PgnGame> games = new ArrayList<>();
+        try (PgnReader reader = new PgnReader(new ByteArrayInputStream(pgn.getBytes(StandardCharsets.UTF_8)))) {
+            for (PgnGame game = reader.next(); game != null; game = reader.next()) {
+                games.add(game);
+            }
+        }
+        return games;
+    }
+
+    private static String write(PgnGame game) throws IOException {
+        StringBuilder out = new StringBuilder();
+        new PgnWriter(out).write(game);
+        return out.toString();
+    }
+
+    @Test
+    @DisplayName("A game reads and writes back unchanged")
+    public void roundTripsKnownGame() throws IOException {
+        List<PgnGame> games = readAll(OPERA_GAME);
+        Assertions.assertEquals(1, games.size());
+        PgnGame game = games.getFirst();
+        Assertions.assertEquals("Paul Morphy", game.tags().get("White"));
+        Assertions.assertEquals("1-0", game.result());
+        Assertions.assertEquals(33, game.game().getMoveHistory().length);
+        Assertions.assertTrue(game.game().isInCheckmate(ChessGame.TeamColor.BLACK));
+        Assertions.assertEquals(OPERA_GAME, write(game));
+    }
+
+    @Test
+    @DisplayName("Comments, variations, NAGs and escape lines are skipped")
+    public void skipsAnnotations() throws IOException {
+        String pgn = """
+                % exported by some tool
+                [Event "Annotated"]
+
+                1.e4 {best by test} e5 (1...c5 2.Nf3 (2.c3) d6) 2.Nf3!? $1 ; a rest-of-line comment
+                2...Nc6 3.Bb5 a6 {Morphy (defence)} 1/2-1/2
+                """;
+        PgnGame game = readAll(pgn).getFirst();
+        Assertions.assertEquals("1/2-1/2", game.result());
+        Assertions.assertEquals("r1bqkbnr/1ppp1ppp/p1n5/1B2p3/4P3/5N2/PPPP1PPP/RNBQK2R w KQkq - 0 4",
+                game.game().toFen());
+    }
+
+    @Test
+    @DisplayName("A bad game is reported and the following games still read")
+    public void recoversFromBadGame() throws IOException {
+        String pgn = OPERA_GAME + """
+                [Event "Broken"]
+
+                1. e4 e5 2. Ke3 Nc6 *
+
+                [Event "Unclosed]
+                [Site "Nowhere"]
+                [FEN "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1"]
+
+                1. d4 d5 { a [bracket] in a comment }
+                2. c4 1/2-1/2
+
+                """ + OPERA_GAME;
+        try (PgnReader reader = new PgnReader(new ByteArrayInputStream(pgn.getBytes(StandardCharsets.UTF_8)))) {
+            Assertions.assertNotNull(reader.next());
+            IllegalArgumentException error = Assertions.assertThrows(IllegalArgumentException.class, reader::next);
+            Assertions.assertTrue(error.getMessage().contains("Ke3"), error.getMessage());
+            error = Assertions.assertThrows(IllegalArgumentException.class, reader::next);
+            Assertions.assertTrue(error.getMessage().contains("not closed"), error.getMessage());
+            Assertions.assertEquals("Paris", reader.next().tags().get("Event"));
+            Assertions.assertNull(reader.next());
+            Assertions.assertEquals(4, reader.gamesRead());
+        }
+    }
+
+    @Test
+    @DisplayName("Random games survive a write and read through a mapped file")
+    public void randomGamesRoundTrip(@TempDir Path directory) throws IOException {
+        Random random = new Random(20);
+        MoveList moves = new MoveList();
+        List<ChessGame> played = new ArrayList<>();
+        StringBuilder out = new StringBuilder();
+        PgnWriter writer = new PgnWriter(out);
+        for (int i = 0; i < 40; i++) {
+            ChessGame game = i % 4 == 0
+                    ? ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R b KQkq - 0 1")
+                    : new ChessGame();
+            for (int ply = 0; ply < 120; ply++) {
+                game.generateLegalMoves(moves);
+                if (moves.isEmpty() || game.getDrawClaim() != null) {
+                    break;
+                }
+                game.doMove(moves.get(random.nextInt(moves.size())));
+            }
+            Map<String, String> tags = new LinkedHashMap<>();
+            tags.put("Round", Integer.toString(i + 1));
+            writer.write(tags, game);
+            played.add(game);
+        }
+
+        Path file = directory.resolve("games.pgn");
+        Files.writeString(file, out);
+        try (PgnReader reader = PgnReader.open(file)) {
+            for (ChessGame expected : played) {
+                PgnGame read = reader.next();
+                Assertions.assertEquals(expected.getStartFen(), read.game().getStartFen());
+                Assertions.assertArrayEquals(expected.getMoveHistory(), read.game().getMoveHistory());
+                Assertions.assertEquals(expected, read.game());
+                Assertions.assertEquals(PgnWriter.resultOf(expected), read.result());
+            }
+            Assertions.assertNull(reader.next());
+        }
+    }
+}
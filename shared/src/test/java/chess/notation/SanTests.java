@@ -0,0 +1,88 @@
+package chess.notation;
+
+import chess.ChessGame;
+import chess.MoveList;
+import chess.Moves;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class SanTests {
+
+    private static String san(String fen, String coordinates) {
+        ChessGame game = ChessGame.fromFen(fen);
+        MoveList legal = new MoveList();
+        game.generateLegalMoves(legal);
+        for (int i = 0; i < legal.size(); i++) {
+            if (Moves.toString(legal.get(i)).equals(coordinates)) {
+                return San.format(game, legal.get(i), legal);
+            }
+        }
+        throw new AssertionError(coordinates + " is not legal in " + fen);
+    }
+
+    private static String coordinates(String fen, String san) {
+        ChessGame game = ChessGame.fromFen(fen);
+        MoveList legal = new MoveList();
+        game.generateLegalMoves(legal);
+        return Moves.toString(San.parse(san, game, legal));
+    }
+
+    @Test
+    @DisplayName("Moves are written with the shortest disambiguation")
+    public void formats() {
+        Assertions.assertEquals("Nbd4", san("4k3/8/8/8/8/1N3N2/8/4K3 w - - 0 1", "b3d4"));
+        Assertions.assertEquals("N3d4", san("4k3/8/8/1N6/8/1N6/8/4K3 w - - 0 1", "b3d4"));
+        String knights = "4k3/8/8/1N3N2/8/1N3N2/8/4K3 w - - 0 1";
+        Assertions.assertEquals("Nb3d4", san(knights, "b3d4"));
+        Assertions.assertEquals("Nbd6+", san(knights, "b5d6"));
+        Assertions.assertEquals("Nc7+", san(knights, "b5c7"));
+
+        Assertions.assertEquals("exd6", san("4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1", "e5d6"));
+        Assertions.assertEquals("bxa8=N", san("r3k3/1P6/8/8/8/8/8/4K3 w q - 0 1", "b7a8n"));
+        Assertions.assertEquals("O-O-O", san("r3k3/1P6/8/8/8/8/8/R3K3 w Q - 0 1", "e1c1"));
+        Assertions.assertEquals("Qh5#", san("rnbqkbnr/ppppp2p/5p2/6p1/4P3/8/PPPP1PPP/RNBQKBNR w KQkq - 0 3", "d1h5"));
+    }
+
+    @Test
+    @DisplayName("Tokens are read with or without suffixes, captures and zeros")
+    public void parses() {
+        String knights = "4k3/8/8/1N3N2/8/1N3N2/8/4K3 w - - 0 1";
+        Assertions.assertEquals("b3d4", coordinates(knights, "Nb3d4"));
+        Assertions.assertEquals("b5d6", coordinates(knights, "Nbd6!?"));
+        Assertions.assertEquals("f3d4", coordinates(knights, "Nf3xd4"));
+        Assertions.assertEquals("b5c7", coordinates(knights, "Nc7+"));
+        Assertions.assertEquals("e2e4", coordinates("4k3/8/8/8/8/8/4P3/4K3 w - - 0 1", "e4"));
+        Assertions.assertEquals("b7a8q", coordinates("r3k3/1P6/8/8/8/8/8/4K3 w q - 0 1", "bxa8Q"));
+        Assertions.assertEquals("e1g1", coordinates("4k3/8/8/8/8/8/8/4K2R w K - 0 1", "0-0"));
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> coordinates(knights, "Nbd4"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> coordinates(knights, "Nd5"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> coordinates(knights, "O-O"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> coordinates(knights, "Zz9"));
+    }
+
+    @Test
+    @DisplayName("Every legal move reads back from the text written for it")
+    public void roundTrips() {
+        Random random = new Random(21);
+        MoveList legal = new MoveList();
+        for (int gameNumber = 0; gameNumber < 30; gameNumber++) {
+            ChessGame game = ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+            for (int ply = 0; ply < 60; ply++) {
+                game.generateLegalMoves(legal);
+                if (legal.isEmpty()) {
+                    break;
+                }
+                for (int i = 0; i < legal.size(); i++) {
+                    int move = legal.get(i);
+                    Assertions.assertEquals(move, San.parse(San.format(game, move, legal), game, legal),
+                            Moves.toString(move));
+                }
+                game.doMove(legal.get(random.nextInt(legal.size())));
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package chess.perft;
+
+import chess.ChessGame;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.List;
+
+public class PerftTests {
+
+    static List<PerftPosition> referencePositions() {
+        return PerftPosition.REFERENCE_POSITIONS;
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("referencePositions")
+    @DisplayName("Perft node counts match the reference values")
+    public void referenceCounts(PerftPosition position) {
+        Perft perft = new Perft();
+        for (int depth = 1; depth <= position.maxDepth(); depth++) {
+            ChessGame game = ChessGame.fromFen(position.fen());
+            Assertions.assertEquals(position.expectedNodes(depth), perft.perft(game, depth),
+                    position.name() + " at depth " + depth);
+        }
+    }
+
+    @Test
+    @DisplayName("validMoves and allLegalMoves walk the same tree")
+    public void validMovesAgreesWithLegalMoves() {
+        PerftPosition position = PerftPosition.REFERENCE_POSITIONS.getFirst();
+        long legal = new Perft(Perft.MoveSource.LEGAL_MOVES).perft(ChessGame.fromFen(position.fen()), 3);
+        long valid = new Perft(Perft.MoveSource.VALID_MOVES).perft(ChessGame.fromFen(position.fen()), 3);
+        Assertions.assertEquals(legal, valid);
+    }
+
+    @Test
+    @DisplayName("Divide totals add up and leave the game untouched")
+    public void divideLeavesGameUnchanged() {
+        ChessGame game = ChessGame.fromFen(PerftPosition.START_FEN);
+        ChessGame before = ChessGame.fromFen(PerftPosition.START_FEN);
+        long total = new Perft().divide(game, 3).values().stream().mapToLong(Long::longValue).sum();
+        Assertions.assertEquals(8_902, total);
+        Assertions.assertEquals(before, game);
+        Assertions.assertEquals(before.positionKey(), game.positionKey());
+    }
+
+    @Test
+    @DisplayName("Parallel perft matches the sequential count")
+    public void parallelMatchesSequential() {
+        PerftPosition position = PerftPosition.REFERENCE_POSITIONS.getLast();
+        ChessGame game = ChessGame.fromFen(position.fen());
+        ChessGame before = game.copy();
+        Assertions.assertEquals(position.expectedNodes(3), new ParallelPerft().perft(game, 3));
+        Assertions.assertEquals(new Perft().divide(game, 3), new ParallelPerft().divide(game, 3));
+        Assertions.assertEquals(before, game);
+    }
+}
@@ -0,0 +1,91 @@
+package chess.search;
+
+import chess.*;
+import chess.perft.PerftPosition;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class EvaluatorTests {
+
+    private static final String MIDGAME = "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10";
+
+    @Test
+    @DisplayName("The starting position is level")
+    public void startIsLevel() {
+        Assertions.assertEquals(0, new Evaluator().evaluate(new ChessGame()));
+    }
+
+    @Test
+    @DisplayName("Swapping the colours gives the same score to the side to move")
+    public void colourSymmetric() {
+        Evaluator evaluator = new Evaluator();
+        for (String fen : List.of(MIDGAME, "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+                "4k3/pp4pp/8/3P4/8/8/5PPP/4K3 w - - 0 1")) {
+            Assertions.assertEquals(evaluator.evaluate(ChessGame.fromFen(fen)),
+                    evaluator.evaluate(ChessGame.fromFen(mirror(fen))), fen);
+        }
+    }
+
+    @Test
+    @DisplayName("An extra passed pawn is worth more in the endgame than a blocked one")
+    public void rewardsPassedPawns() {
+        Evaluator evaluator = new Evaluator();
+        int passed = evaluator.evaluate(ChessGame.fromFen("4k3/8/8/3P4/8/8/8/4K3 w - - 0 1"));
+        int blocked = evaluator.evaluate(ChessGame.fromFen("4k3/8/3p4/3P4/8/8/8/4K3 w - - 0 1"));
+        Assertions.assertTrue(passed > 100, "passed pawn scored " + passed);
+        Assertions.assertTrue(blocked < passed);
+    }
+
+    @Test
+    @DisplayName("Incremental scores match a board built from scratch after random games")
+    public void incrementalMatchesRebuild() {
+        Random random = new Random(13);
+        for (int gameNumber = 0; gameNumber < 50; gameNumber++) {
+            ChessGame game = ChessGame.fromFen(PerftPosition.START_FEN);
+            for (int ply = 0; ply < 80; ply++) {
+                List<ChessMove> moves = new ArrayList<>(game.allLegalMoves(game.getTeamTurn()));
+                if (moves.isEmpty()) {
+                    break;
+                }
+                game.doMove(moves.get(random.nextInt(moves.size())));
+
+                ChessBoard board = game.getBoard();
+                ChessBoard rebuilt = new ChessBoard();
+                for (int square = 0; square < 64; square++) {
+                    ChessPiece piece = board.getPiece(square);
+                    if (piece != null) {
+                        rebuilt.addPiece(new ChessPosition(Bitboards.rowOf(square), Bitboards.columnOf(square)), piece);
+                    }
+                }
+                Assertions.assertEquals(rebuilt.getMidgameScore(), board.getMidgameScore());
+                Assertions.assertEquals(rebuilt.getEndgameScore(), board.getEndgameScore());
+                Assertions.assertEquals(rebuilt.getPhase(), board.getPhase());
+                Assertions.assertEquals(rebuilt.getPawnKey(), board.getPawnKey());
+            }
+        }
+    }
+
+    /**
+     * @return the FEN with the board flipped top to bottom, the colours swapped
+     * and the other side to move
+     */
+    private static String mirror(String fen) {
+        String[] fields = fen.split(" ");
+        String[] ranks = fields[0].split("/");
+        StringBuilder placement = new StringBuilder();
+        for (int i = ranks.length - 1; i >= 0; i--) {
+            for (char c : ranks[i].toCharArray()) {
+                placement.append(Character.isUpperCase(c) ? Character.toLowerCase(c) : Character.toUpperCase(c));
+            }
+            if (i > 0) {
+                placement.append('/');
+            }
+        }
+        return placement + (fields[1].equals("w") ? " b" : " w") + " - - 0 1";
+    }
+}
@@ -0,0 +1,64 @@
+package chess.search;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.perft.PerftPosition;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+public class LazySmpSearchTests {
+
+    private static final String MIDGAME = "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10";
+
+    @Test
+    @DisplayName("Several threads still find a mate in one")
+    public void findsMate() {
+        try (LazySmpSearch search = new LazySmpSearch(3)) {
+            SearchResult result = search.search(ChessGame.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1"),
+                    SearchLimits.depth(4));
+            Assertions.assertEquals(new ChessMove(new ChessPosition(1, 1), new ChessPosition(8, 1), null),
+                    result.bestMove());
+            Assertions.assertTrue(result.isMate());
+        }
+    }
+
+    @Test
+    @DisplayName("Every thread searches and the node counts add up")
+    public void reportsPerThreadNodes() {
+        try (LazySmpSearch search = new LazySmpSearch(4)) {
+            SearchResult result = search.search(ChessGame.fromFen(MIDGAME), SearchLimits.depth(3));
+            long[] threadNodes = search.threadNodes();
+
+            Assertions.assertEquals(4, threadNodes.length);
+            Assertions.assertTrue(Arrays.stream(threadNodes).allMatch(nodes -> nodes > 0),
+                    Arrays.toString(threadNodes));
+            Assertions.assertEquals(Arrays.stream(threadNodes).sum(), result.nodes());
+            Assertions.assertNotNull(result.bestMove());
+        }
+    }
+
+    @Test
+    @DisplayName("Time and node limits apply to all threads together")
+    public void honorsSharedLimits() {
+        try (LazySmpSearch search = new LazySmpSearch(4)) {
+            ChessGame game = ChessGame.fromFen(PerftPosition.START_FEN);
+            ChessGame before = game.copy();
+
+            long start = System.nanoTime();
+            SearchResult timed = search.search(game, SearchLimits.time(200));
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            Assertions.assertNotNull(timed.bestMove());
+            Assertions.assertTrue(elapsedMillis < 1_000, "search took " + elapsedMillis + " ms");
+
+            SearchResult counted = search.search(game, SearchLimits.nodes(20_000));
+            Assertions.assertNotNull(counted.bestMove());
+            // each thread may run past the limit by at most one reporting batch
+            Assertions.assertTrue(counted.nodes() < 20_000 + 4 * 2_048, "searched " + counted.nodes());
+            Assertions.assertEquals(before, game);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package chess.search;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.perft.PerftPosition;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class SearchEngineTests {
+
+    @Test
+    @DisplayName("Finds a back rank mate in one")
+    public void findsMateInOne() {
+        ChessGame game = ChessGame.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        SearchResult result = new SearchEngine().search(game, SearchLimits.depth(4));
+
+        Assertions.assertEquals(new ChessMove(new ChessPosition(1, 1), new ChessPosition(8, 1), null),
+                result.bestMove());
+        Assertions.assertTrue(result.isMate());
+        Assertions.assertEquals(SearchEngine.MATE - 1, result.score());
+    }
+
+    @Test
+    @DisplayName("Takes a hanging queen")
+    public void capturesHangingQueen() {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/3q4/8/8/8/3RK3 w - - 0 1");
+        SearchResult result = new SearchEngine().search(game, SearchLimits.depth(3));
+
+        Assertions.assertEquals(new ChessPosition(5, 4), result.bestMove().getEndPosition());
+        Assertions.assertTrue(result.score() > 0);
+        Assertions.assertEquals(result.bestMove(), result.pv().getFirst());
+    }
+
+    @Test
+    @DisplayName("Stops inside the time budget and leaves the game untouched")
+    public void respectsTimeLimit() {
+        ChessGame game = ChessGame.fromFen(PerftPosition.START_FEN);
+        ChessGame before = game.copy();
+
+        long start = System.nanoTime();
+        SearchResult result = new SearchEngine().search(game, SearchLimits.time(200));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        Assertions.assertNotNull(result.bestMove());
+        Assertions.assertTrue(result.depth() >= 1);
+        Assertions.assertTrue(elapsedMillis < 1_000, "search took " + elapsedMillis + " ms");
+        Assertions.assertEquals(before, game);
+    }
+
+    @Test
+    @DisplayName("Reports no move when the side to move is checkmated")
+    public void noMoveWhenMated() {
+        ChessGame game = ChessGame.fromFen("rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w - - 1 3");
+        SearchResult result = new SearchEngine().search(game, SearchLimits.depth(2));
+
+        Assertions.assertNull(result.bestMove());
+        Assertions.assertEquals(-SearchEngine.MATE, result.score());
+    }
+
+    @Test
+    @DisplayName("A side that is lost heads for a repetition")
+    public void scoresRepetitionAsDraw() {
+        String fen = "k7/8/8/8/8/8/8/K6R b - - 0 1";
+        SearchResult lost = new SearchEngine().search(ChessGame.fromFen(fen), SearchLimits.depth(3));
+        Assertions.assertTrue(lost.score() < -300, "score " + lost.score());
+
+        ChessGame game = ChessGame.fromFen(fen);
+        for (String move : new String[] {"a8b8", "h1h2", "b8a8", "h2h1"}) {
+            game.doMove(new ChessMove(ChessPosition.fromAlgebraic(move.substring(0, 2)),
+                    ChessPosition.fromAlgebraic(move.substring(2)), null));
+        }
+        SearchResult result = new SearchEngine().search(game, SearchLimits.depth(3));
+        Assertions.assertEquals(0, result.score());
+        Assertions.assertEquals(ChessPosition.fromAlgebraic("b8"), result.bestMove().getEndPosition());
+    }
+}
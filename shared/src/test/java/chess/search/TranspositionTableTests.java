@@ -0,0 +1,89 @@
+package chess.search;
+
+import chess.ChessGame;
+import chess.Moves;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class TranspositionTableTests {
+
+    private static final int E2E4 = Moves.encode(12, 28, Moves.DOUBLE_PUSH);
+
+    @Test
+    @DisplayName("Size in MB maps to a power of two entry count")
+    public void sizesTable() {
+        Assertions.assertEquals(65_536, new TranspositionTable(1).capacity());
+        Assertions.assertEquals(131_072, new TranspositionTable(3).capacity());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new TranspositionTable(0));
+    }
+
+    @Test
+    @DisplayName("The largest accepted size still fits in one array")
+    public void sizesLargestTable() {
+        // allocating the 8 GB table itself is too much for a test heap, so check the sizing it would use
+        int entries = TranspositionTable.entries(TranspositionTable.MAX_SIZE_MB);
+        Assertions.assertEquals(1 << 29, entries);
+        Assertions.assertTrue(entries * 2L <= Integer.MAX_VALUE - 8);
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> TranspositionTable.entries(TranspositionTable.MAX_SIZE_MB + 1));
+    }
+
+    @Test
+    @DisplayName("Stored entries read back and other keys miss")
+    public void storesAndProbes() {
+        TranspositionTable table = new TranspositionTable(1);
+        long key = 0x1234_5678_9ABC_DEF0L;
+        table.store(key, 0, E2E4, -57, 6, TranspositionTable.BOUND_LOWER);
+
+        long entry = table.probe(key, 0);
+        Assertions.assertNotEquals(TranspositionTable.MISS, entry);
+        Assertions.assertEquals(E2E4, TranspositionTable.moveOf(entry));
+        Assertions.assertEquals(-57, TranspositionTable.scoreOf(entry));
+        Assertions.assertEquals(6, TranspositionTable.depthOf(entry));
+        Assertions.assertEquals(TranspositionTable.BOUND_LOWER, TranspositionTable.boundOf(entry));
+
+        // same slot, different key
+        Assertions.assertEquals(TranspositionTable.MISS, table.probe(key ^ (1L << 40), 0));
+    }
+
+    @Test
+    @DisplayName("Deeper entries from the current search are kept, stale ones are replaced")
+    public void prefersDepthThenAge() {
+        TranspositionTable table = new TranspositionTable(1);
+        long deep = 42;
+        long shallow = deep | (1L << 50);
+
+        table.store(deep, 0, E2E4, 10, 8, TranspositionTable.BOUND_EXACT);
+        table.store(shallow, 0, Moves.NONE, 20, 2, TranspositionTable.BOUND_EXACT);
+        Assertions.assertEquals(TranspositionTable.MISS, table.probe(shallow, 0));
+        Assertions.assertEquals(8, TranspositionTable.depthOf(table.probe(deep, 0)));
+
+        table.newSearch();
+        table.store(shallow, 0, Moves.NONE, 20, 2, TranspositionTable.BOUND_EXACT);
+        Assertions.assertEquals(20, TranspositionTable.scoreOf(table.probe(shallow, 0)));
+        Assertions.assertEquals(TranspositionTable.MISS, table.probe(deep, 0));
+    }
+
+    @Test
+    @DisplayName("Mate scores are stored relative to the node")
+    public void adjustsMateScores() {
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(7, 3, Moves.NONE, SearchEngine.MATE - 5, 4, TranspositionTable.BOUND_EXACT);
+        Assertions.assertEquals(SearchEngine.MATE - 5, TranspositionTable.scoreOf(table.probe(7, 3)));
+        // the same mate seen one ply further from the root is one move further away
+        Assertions.assertEquals(SearchEngine.MATE - 6, TranspositionTable.scoreOf(table.probe(7, 4)));
+    }
+
+    @Test
+    @DisplayName("Engines sharing a table agree with a fresh search")
+    public void sharedTableSearch() {
+        TranspositionTable table = new TranspositionTable(4);
+        ChessGame game = ChessGame.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        SearchResult first = new SearchEngine(table).search(game, SearchLimits.depth(5));
+        SearchResult second = new SearchEngine(table).search(game, SearchLimits.depth(5));
+        Assertions.assertEquals(first.bestMove(), second.bestMove());
+        Assertions.assertEquals(first.score(), second.score());
+        Assertions.assertTrue(second.nodes() <= first.nodes());
+    }
+}
@@ -0,0 +1,156 @@
+package chess.tablebase;
+
+import chess.CastlingRights;
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.MoveList;
+import chess.Moves;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class TablebaseTests {
+
+    @TempDir
+    static Path directory;
+    private static Tablebase tablebase;
+
+    @BeforeAll
+    static void generate() throws IOException {
+        TablebaseGenerator generator = new TablebaseGenerator(directory);
+        generator.generate("KQK");
+        generator.generate("KRK");
+        tablebase = Tablebase.open(directory);
+    }
+
+    /**
+     * @return the most plies the side to move needs to mate, over the whole table
+     */
+    private static int longestWin(String name) throws IOException {
+        Table table = Table.open(directory.resolve(name + Tablebase.EXTENSION));
+        int longest = 0;
+        for (int index = 0; index < table.size(); index++) {
+            int value = table.value(index);
+            if (value != Table.ILLEGAL && value % 2 == 0) {
+                longest = Math.max(longest, value - 1);
+            }
+        }
+        return longest;
+    }
+
+    @Test
+    @DisplayName("The longest mates match the known values")
+    public void longestMates() throws IOException {
+        // mate in 10 with the queen and 16 with the rook
+        Assertions.assertEquals(19, longestWin("KQK"));
+        Assertions.assertEquals(31, longestWin("KRK"));
+    }
+
+    @Test
+    @DisplayName("Every distance is one more than the best reply's, through promotions too")
+    public void distancesMatchChildren() throws IOException {
+        new TablebaseGenerator(directory).generate("KPK");
+        Tablebase withPawns = Tablebase.open(directory);
+        Table table = Table.open(directory.resolve("KPK" + Tablebase.EXTENSION));
+        int[] pieces = table.pieces();
+        int[] squares = new int[pieces.length];
+        MoveList moves = new MoveList();
+        for (int index = 0; index < table.size(); index++) {
+            int value = table.value(index);
+            if (value == Table.ILLEGAL || value == Table.DRAW) {
+                continue;
+            }
+            ChessBoard board = new ChessBoard();
+            ChessGame.TeamColor toMove = table.decode(index, squares);
+            for (int i = 0; i < pieces.length; i++) {
+                board.addPiece(ChessPosition.ofSquare(squares[i]),
+                        ChessPiece.of(ChessBoard.colorOf(pieces[i]), ChessBoard.typeOf(pieces[i])));
+            }
+            ChessGame game = new ChessGame();
+            game.setBoard(board);
+            game.setTeamTurn(toMove);
+            game.setCastlingRights(CastlingRights.NONE);
+
+            int quickestWin = Integer.MAX_VALUE;
+            int slowestLoss = -1;
+            game.generateLegalMoves(moves);
+            for (int i = 0; i < moves.size(); i++) {
+                game.doMove(moves.get(i));
+                Tablebase.Outcome reply = withPawns.probe(game);
+                game.undoMove();
+                if (reply.result() == Tablebase.Result.LOSS) {
+                    quickestWin = Math.min(quickestWin, reply.pliesToMate() + 1);
+                } else if (reply.result() == Tablebase.Result.WIN) {
+                    slowestLoss = Math.max(slowestLoss, reply.pliesToMate() + 1);
+                }
+            }
+            int plies = value - 1;
+            int expected = plies % 2 == 1 ? quickestWin : Math.max(slowestLoss, 0);
+            Assertions.assertEquals(expected, plies, "index " + index);
+        }
+        // Kc2 mates sooner than promoting at once
+        Tablebase.Outcome promotion = withPawns.probe(ChessGame.fromFen("8/P7/8/8/8/8/k7/2K5 w - - 0 1"));
+        Assertions.assertEquals(new Tablebase.Outcome(Tablebase.Result.WIN, 9), promotion);
+    }
+
+    @Test
+    @DisplayName("Probes give the result for the side to move")
+    public void probes() {
+        Tablebase.Outcome mateInOne = tablebase.probe(ChessGame.fromFen("k7/8/1K6/8/8/8/7Q/8 w - - 0 1"));
+        Assertions.assertEquals(new Tablebase.Outcome(Tablebase.Result.WIN, 1), mateInOne);
+
+        Tablebase.Outcome mated = tablebase.probe(ChessGame.fromFen("k6Q/8/1K6/8/8/8/8/8 b - - 0 1"));
+        Assertions.assertEquals(new Tablebase.Outcome(Tablebase.Result.LOSS, 0), mated);
+
+        Tablebase.Outcome hangingQueen = tablebase.probe(ChessGame.fromFen("4k3/4Q3/8/8/8/8/8/K7 b - - 0 1"));
+        Assertions.assertEquals(Tablebase.Result.DRAW, hangingQueen.result());
+
+        Assertions.assertNull(tablebase.probe(new ChessGame()));
+        Assertions.assertNull(tablebase.probe(ChessGame.fromFen("4k3/8/8/8/8/8/4P3/4K3 w - - 0 1")));
+    }
+
+    @Test
+    @DisplayName("A table also answers for the colors swapped and the board mirrored")
+    public void symmetry() {
+        Tablebase.Outcome white = tablebase.probe(ChessGame.fromFen("k7/8/1K6/8/8/8/7Q/8 w - - 0 1"));
+        Tablebase.Outcome mirrored = tablebase.probe(ChessGame.fromFen("7k/8/6K1/8/8/8/Q7/8 w - - 0 1"));
+        Tablebase.Outcome black = tablebase.probe(ChessGame.fromFen("8/7q/8/8/8/1k6/8/K7 b - - 0 1"));
+        Assertions.assertEquals(white, mirrored);
+        Assertions.assertEquals(white, black);
+    }
+
+    @Test
+    @DisplayName("The best move shortens the mate by one move each turn")
+    public void bestMovePlaysOutTheMate() {
+        ChessGame game = ChessGame.fromFen("8/8/8/4k3/8/8/8/R3K3 w - - 0 1");
+        Tablebase.Outcome start = tablebase.probe(game);
+        Assertions.assertEquals(Tablebase.Result.WIN, start.result());
+        for (int ply = 0; ply < start.pliesToMate(); ply++) {
+            int move = tablebase.bestMove(game);
+            Assertions.assertNotEquals(Moves.NONE, move);
+            game.doMove(move);
+            Assertions.assertEquals(start.pliesToMate() - ply - 1, tablebase.probe(game).pliesToMate());
+        }
+        Assertions.assertTrue(game.isInCheckmate(game.getTeamTurn()));
+    }
+
+    @Test
+    @DisplayName("Tables are written once per ending and reused")
+    public void reusesFiles() throws IOException {
+        Assertions.assertTrue(Files.exists(directory.resolve("KQK" + Tablebase.EXTENSION)));
+        Assertions.assertTrue(tablebase.contains("KKQ"));
+        Assertions.assertFalse(tablebase.contains("KPK"));
+        long written = Files.getLastModifiedTime(directory.resolve("KRK" + Tablebase.EXTENSION)).toMillis();
+        new TablebaseGenerator(directory).generate("KRK");
+        Assertions.assertEquals(written,
+                Files.getLastModifiedTime(directory.resolve("KRK" + Tablebase.EXTENSION)).toMillis());
+    }
+}